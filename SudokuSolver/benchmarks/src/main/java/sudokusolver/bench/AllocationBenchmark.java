@@ -0,0 +1,85 @@
+/*
+ * AllocationBenchmark.java
+ *
+ * Purpose: Measures what solving allocates with a reused engine
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudokusolver.EngineType;
+import sudokusolver.SolveResult;
+import sudokusolver.SolverEngine;
+
+/**
+ * AllocationBenchmark
+ *
+ * Purpose:
+ *      Solves the next puzzle of the set with a reused engine, once through
+ *      solve(), which makes a new result and grid, and once through
+ *      solveInto() with a reused solution grid. Run with -prof gc:
+ *
+ *          java -jar target/benchmarks.jar AllocationBenchmark -prof gc
+ *
+ *      gc.alloc.rate.norm for solveInto should be 0 B/op (a few bytes of
+ *      JMH noise at most), so solving a large batch never makes garbage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+  @Param({"EASY", "MEDIUM", "HARD", "EXPERT", "EXTREME", "SEVENTEEN"})
+  public PuzzleSet set;
+
+  @Param({"PROPAGATION", "DANCING_LINKS"})
+  public EngineType engineType;
+
+  private SolverEngine engine;
+  private int[][] grids;
+  private int[] solution;
+  private int next;
+
+  @Setup
+  public void setup() {
+    engine = engineType.newEngine();
+    grids = set.grids();
+    solution = new int[81];
+  }
+
+  @Benchmark
+  public SolveResult solve() {
+    return engine.solve(nextGrid());
+  }
+
+  @Benchmark
+  public SolveResult.Status solveInto() {
+    return engine.solveInto(nextGrid(), solution);
+  }
+
+  private int[] nextGrid() {
+    int i = next;
+    next = i + 1 == grids.length ? 0 : i + 1;
+    return grids[i];
+  }
+}
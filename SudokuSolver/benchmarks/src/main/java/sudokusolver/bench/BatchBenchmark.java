@@ -0,0 +1,85 @@
+/*
+ * BatchBenchmark.java
+ *
+ * Purpose: Measures the --batch path from puzzle lines in to result
+ *          lines out
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudokusolver.BatchSolver;
+import sudokusolver.EngineType;
+
+/**
+ * BatchBenchmark
+ *
+ * Purpose:
+ *      Runs BatchSolver over an in memory input of PUZZLES lines made by
+ *      repeating the set. The score is per puzzle, so it can be compared
+ *      with SolveBenchmark to see the cost of parsing, formatting and
+ *      handing chunks between threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+  private static final int PUZZLES = 10000;
+
+  @Param({"EASY", "MEDIUM", "HARD", "EXPERT", "EXTREME", "SEVENTEEN"})
+  public PuzzleSet set;
+
+  @Param({"PROPAGATION", "DANCING_LINKS"})
+  public EngineType engineType;
+
+  @Param({"1", "4"})
+  public int threads;
+
+  private byte[] input;
+  private ByteArrayOutputStream output;
+
+  @Setup
+  public void setup() {
+    String[] lines = set.lines();
+    StringBuilder text = new StringBuilder(PUZZLES * 82);
+    for (int i = 0; i < PUZZLES; i++) {
+      text.append(lines[i % lines.length]).append('\n');
+    }
+    input = text.toString().getBytes(StandardCharsets.US_ASCII);
+    output = new ByteArrayOutputStream(input.length);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PUZZLES)
+  public int batch() throws IOException {
+    output.reset();
+    new BatchSolver(engineType, threads).run(new ByteArrayInputStream(input), output);
+    return output.size();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * PropagationBenchmark.java
+ *
+ * Purpose: Measures the SudokuPuzzle propagation steps on their own
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudokusolver.SudokuPuzzle;
+
+/**
+ * PropagationBenchmark
+ *
+ * Purpose:
+ *      Every step changes the puzzle it runs on, so each call first copies
+ *      a prepared puzzle into a work puzzle. The copy benchmark measures
+ *      that copy alone, subtract it to get the cost of the step itself.
+ *      Each call moves on to the next puzzle of the set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropagationBenchmark {
+
+  @Param({"EASY", "MEDIUM", "HARD", "EXPERT", "EXTREME", "SEVENTEEN"})
+  public PuzzleSet set;
+
+  // Puzzles with only their givens
+  private SudokuPuzzle[] givens;
+
+  // Puzzles after one fillAllCellPossibilities(), ready for hidden singles
+  private SudokuPuzzle[] filled;
+
+  private final SudokuPuzzle work = new SudokuPuzzle();
+  private int next;
+
+  @Setup
+  public void setup() {
+    givens = set.puzzles();
+    filled = set.puzzles();
+    for (SudokuPuzzle puzzle : filled) puzzle.fillAllCellPossibilities();
+  }
+
+  private int nextIndex() {
+    int i = next;
+    next = i + 1 == givens.length ? 0 : i + 1;
+    return i;
+  }
+
+  @Benchmark
+  public SudokuPuzzle copy() {
+    work.copyFrom(givens[nextIndex()]);
+    return work;
+  }
+
+  @Benchmark
+  public int fillAllCellPossibilities() {
+    work.copyFrom(givens[nextIndex()]);
+    return work.fillAllCellPossibilities();
+  }
+
+  @Benchmark
+  public int checkForFillableRows() {
+    work.copyFrom(filled[nextIndex()]);
+    return work.checkForFillableRows();
+  }
+
+  @Benchmark
+  public int checkForFillableCols() {
+    work.copyFrom(filled[nextIndex()]);
+    return work.checkForFillableCols();
+  }
+
+  @Benchmark
+  public int checkForFillableBoxs() {
+    work.copyFrom(filled[nextIndex()]);
+    return work.checkForFillableBoxs();
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * PuzzleSet.java
+ *
+ * Purpose: Fixed puzzles for the benchmarks, grouped by their grade
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - puzzles() uses SudokuPuzzle.load()
+ *  Oct 18, 2026 - Sets picked by PropagationEngine.grade(), with EXPERT and
+ *                 EXTREME sets
+ */
+package sudokusolver.bench;
+
+import sudokusolver.PuzzleFormat;
+import sudokusolver.SudokuPuzzle;
+
+/**
+ * PuzzleSet
+ *
+ * Purpose:
+ *      Every puzzle here has exactly one solution. The first five sets are
+ *      named for the Difficulty PropagationEngine.grade() gives each of
+ *      their puzzles, so they should be checked again if the grading
+ *      changes.
+ *          EASY      - Solved by naked and hidden singles alone
+ *          MEDIUM    - Needs intersections
+ *          HARD      - Needs naked or hidden subsets
+ *          EXPERT    - Needs fish
+ *          EXTREME   - Needs guessing, from 7 to 30 guesses
+ *          SEVENTEEN - Minimal 17 clue puzzles, picked by their source
+ *                      rather than their grade (most are EASY)
+ */
+public enum PuzzleSet {
+
+  EASY(
+    "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+    "200080300060070084030500209000105408000000000402706000301007040720040060004010003",
+    "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+    "030050040008010500460000012070502080000603000040109030250000098001020600080060020",
+    "480006902002008001900370060840010200003704100001060049020085007700900600609200018",
+    "000900002050123400030000160908000000070000090000000205091000050007439020400007000"
+  ),
+
+  MEDIUM(
+    "100920000524010000000000070050008102000000000402700090060000000000030945000071006",
+    "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+    "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+    ".....527....1...5...4......5..3..84..2..57..33....9..6.3.9.1....98...........2.6."
+  ),
+
+  HARD(
+    "001900003900700160030005007050000009004302600200000070600100030042007006500006800",
+    "9..4....2......3..85.31......9..4.2...6......2..7..59431.........5.......4.6.593.",
+    ".21...4.........5.....7.8...1.2....9...6.97...86.........3.6....3.8..261..4.1...5",
+    "..2.8...197.2..3......4...72......1...8.5....65......4...8...9...9.1573.3.......2"
+  ),
+
+  EXPERT(
+    "043080250600000000000001094900004070000608000010200003820500000000000005034090710",
+    ".8.....53.9..85.......6....9...7.6...57....19..14...8....6......3..4.5.8...7.2.6.",
+    "3..29.6....17....55....4........1..4.4....89....9.....65.3....8.3..8.76.9........",
+    "1..2...4...4.7.....2....1.99.8....3.....6...2..68......1...43.7...9.72..8..3....1"
+  ),
+
+  EXTREME(
+    "080000001007004020600300700002009000100060008030400000001700600090008005000000040",
+    "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+    "..3..5...5..94..7..9.3.....1..8............87..8.7.9139.42.......1...26.....38..9",
+    "..2.9.......6..5.9.7...5.1.....3...8..4..8.....6..27....7.....1.1.32.9...2.5...3."
+  ),
+
+  SEVENTEEN(
+    "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+    "000000010400000000020000000000050604008000300001090000300400200050100000000807000",
+    "000000012000035000000600070700000300000400800100000000000120000080000040050000600",
+    "000000012003600000000007000410020000000500300700000600280000040000300500000000000",
+    "000000012008030000000000040120500000000004700060000000507000300000620000000100000",
+    "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9"
+  );
+
+  private final String[] lines;
+
+  PuzzleSet(String... lines) {
+    this.lines = lines;
+  }
+
+  /**
+   * lines()
+   *
+   * Purpose:
+   *      Returns the set's puzzles as puzzle lines
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The puzzle lines
+  */
+  public String[] lines() {
+    return lines.clone();
+  }
+
+  /**
+   * grids()
+   *
+   * Purpose:
+   *      Returns the set's puzzles as 81 value grids
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - One grid per puzzle
+  */
+  public int[][] grids() {
+    int[][] grids = new int[lines.length][81];
+    for (int i = 0; i < lines.length; i++) {
+      if (!PuzzleFormat.parse(lines[i], grids[i]))
+        throw new IllegalStateException("Bad puzzle line " + lines[i]);
+    }
+    return grids;
+  }
+
+  /**
+   * puzzles()
+   *
+   * Purpose:
+   *      Returns the set's puzzles with their givens set in a SudokuPuzzle
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - One SudokuPuzzle per puzzle
+  */
+  public SudokuPuzzle[] puzzles() {
+    int[][] grids = grids();
+    SudokuPuzzle[] puzzles = new SudokuPuzzle[grids.length];
+
+    for (int i = 0; i < grids.length; i++) {
+      puzzles[i] = new SudokuPuzzle();
+      puzzles[i].load(grids[i]);
+    }
+    return puzzles;
+  }
+}
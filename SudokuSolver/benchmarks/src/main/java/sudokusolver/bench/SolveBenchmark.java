@@ -0,0 +1,68 @@
+/*
+ * SolveBenchmark.java
+ *
+ * Purpose: Measures solving whole puzzles with each engine
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudokusolver.EngineType;
+import sudokusolver.SolveResult;
+import sudokusolver.SolverEngine;
+
+/**
+ * SolveBenchmark
+ *
+ * Purpose:
+ *      The same work as SudokuSolver.attemptSolve(), without the window.
+ *      Each call solves the next puzzle of the set with a reused engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolveBenchmark {
+
+  @Param({"EASY", "MEDIUM", "HARD", "EXPERT", "EXTREME", "SEVENTEEN"})
+  public PuzzleSet set;
+
+  @Param({"PROPAGATION", "DANCING_LINKS"})
+  public EngineType engineType;
+
+  private SolverEngine engine;
+  private int[][] grids;
+  private int next;
+
+  @Setup
+  public void setup() {
+    engine = engineType.newEngine();
+    grids = set.grids();
+  }
+
+  @Benchmark
+  public SolveResult solve() {
+    int i = next;
+    next = i + 1 == grids.length ? 0 : i + 1;
+    return engine.solve(grids[i]);
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * BatchDeduplicator.java
+ *
+ * Purpose: Drops puzzles which are the same as an earlier one from a
+ *          stream of puzzle lines
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Chunks go through the shared ChunkPipeline
+ */
+package sudokusolver;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * BatchDeduplicator
+ *
+ * Purpose:
+ *      Reads puzzle lines (see PuzzleFormat) and writes each line whose
+ *      puzzle is not a relabeling, transposition or row/column reordering
+ *      of an earlier line's puzzle. Blank lines are skipped and lines which
+ *      are not puzzles are reported on stderr.
+ *
+ *      Lines are read in chunks, and each chunk's canonical forms (see
+ *      Canonicalizer) are found as one task of a ChunkPipeline, packed into
+ *      CanonicalKeys. The keys are then added to a PackedKeySet in input
+ *      order on the calling thread, which writes the lines whose keys are
+ *      new. Puzzles the Canonicalizer gives up on are only dropped when
+ *      the exact same grid was seen before.
+ *
+ *      Usage: --dedup [--threads n] [--expected n] [input|- [output]]
+ */
+public class BatchDeduplicator {
+
+  // The number of lines canonicalized by one task
+  private static final int CHUNK_LINES = 4096;
+
+  // What a line of a chunk turned out to be
+  private static final byte BLANK = 0;
+  private static final byte BAD = 1;
+  private static final byte CANONICAL = 2;
+  private static final byte RAW = 3;
+
+  // The state each worker thread reuses for every puzzle
+  private static class Worker {
+    final Canonicalizer canonicalizer = new Canonicalizer();
+    final int[] grid = new int[81];
+    final int[] canonical = new int[81];
+  }
+
+  // The lines of one chunk and their keys, ready to add to the sets
+  private static class Chunk {
+    final String[] lines;
+    final int count;
+    final long firstLine;
+    final byte[] kinds;
+    final long[] keys;
+
+    Chunk(String[] lines, int count, long firstLine) {
+      this.lines = lines;
+      this.count = count;
+      this.firstLine = firstLine;
+      this.kinds = new byte[count];
+      this.keys = new long[count * CanonicalKey.LONGS];
+    }
+  }
+
+  private final int threads;
+  private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+  // The keys seen so far, canonical forms and grids which weren't
+  // canonicalized are kept apart so they can't be mistaken for each other
+  private final PackedKeySet canonicalKeys;
+  private final PackedKeySet rawKeys = new PackedKeySet(0);
+
+  // Counts for the summary
+  private long puzzles;
+  private long kept;
+  private long raw;
+  private long errors;
+
+  public BatchDeduplicator(int threads, int expected) {
+    if (threads < 1)
+      throw new IllegalArgumentException("At least one thread is needed");
+
+    this.threads = threads;
+    this.canonicalKeys = new PackedKeySet(expected);
+  }
+
+  /**
+   * main(args)
+   *
+   * Purpose:
+   *      Deduplicates puzzles from command line arguments, then prints the
+   *      number of puzzles kept and the rate to stderr
+   *
+   * Input:
+   *      @param args - The arguments after --dedup
+   *
+   * Output:
+   *      None
+  */
+  public static void main(String[] args) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    int expected = 0;
+    String input = "-";
+    String output = null;
+
+    int i = 0;
+    while (i < args.length && args[i].startsWith("--")) {
+      if (i + 1 >= args.length)
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+
+      if (args[i].equals("--threads")) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--expected")) {
+        expected = Integer.parseInt(args[i + 1]);
+      } else {
+        throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+      i += 2;
+    }
+    if (i < args.length) input = args[i++];
+    if (i < args.length) output = args[i++];
+
+    InputStream in = input.equals("-") ? System.in : new FileInputStream(input);
+    OutputStream out = output == null ? System.out : new FileOutputStream(output);
+
+    BatchDeduplicator dedup = new BatchDeduplicator(threads, expected);
+
+    long start = System.nanoTime();
+    try {
+      dedup.run(in, out);
+    } finally {
+      if (in != System.in) in.close();
+      if (out != System.out) out.close();
+    }
+    dedup.printSummary(System.nanoTime() - start);
+  }
+
+  /**
+   * run(in, out)
+   *
+   * Purpose:
+   *      Writes every puzzle line of in which is not the same puzzle as an
+   *      earlier one, in the same order as the lines
+   *
+   * Input:
+   *      @param in  - The puzzle lines
+   *      @param out - Where to write the kept lines
+   *
+   * Output:
+   *      None
+  */
+  public void run(InputStream in, OutputStream out) throws IOException {
+    BufferedReader reader = ChunkPipeline.newReader(in);
+    Writer writer = ChunkPipeline.newWriter(out);
+
+    try (ChunkPipeline<Chunk> pipeline = new ChunkPipeline<Chunk>(threads, "keying",
+                                                                  chunk -> writeChunk(writer, chunk))) {
+      long lineNumber = 1;
+      String[] lines = new String[CHUNK_LINES];
+      int count;
+      while ((count = ChunkPipeline.readLines(reader, lines)) > 0) {
+        final Chunk chunk = new Chunk(lines, count, lineNumber);
+        pipeline.submit(() -> keyChunk(chunk));
+
+        lineNumber += count;
+        lines = new String[CHUNK_LINES];
+      }
+
+      pipeline.finish();
+      writer.flush();
+    }
+  }
+
+  /**
+   * keyChunk(chunk)
+   *
+   * Purpose:
+   *      Finds the key of each line of a chunk with the current thread's
+   *      canonicalizer
+   *
+   * Input:
+   *      @param chunk - The chunk, its kinds and keys are filled in
+   *
+   * Output:
+   *      @return - The chunk
+  */
+  private Chunk keyChunk(Chunk chunk) {
+    Worker worker = workers.get();
+
+    for (int i = 0; i < chunk.count; i++) {
+      String text = chunk.lines[i];
+
+      if (text.trim().isEmpty()) {
+        chunk.kinds[i] = BLANK;
+        continue;
+      }
+
+      if (!PuzzleFormat.parse(text, worker.grid)) {
+        chunk.kinds[i] = BAD;
+        continue;
+      }
+
+      if (worker.canonicalizer.canonicalize(worker.grid, worker.canonical)) {
+        chunk.kinds[i] = CANONICAL;
+        CanonicalKey.pack(worker.canonical, chunk.keys, i * CanonicalKey.LONGS);
+      } else {
+        chunk.kinds[i] = RAW;
+        CanonicalKey.pack(worker.grid, chunk.keys, i * CanonicalKey.LONGS);
+      }
+    }
+    return chunk;
+  }
+
+  /**
+   * writeChunk(writer, chunk)
+   *
+   * Purpose:
+   *      Adds a chunk's keys to the sets, writing the lines whose keys are
+   *      new, and adds its counts to the summary
+   *
+   * Input:
+   *      @param writer - Where to write the kept lines
+   *      @param chunk  - The keyed chunk
+   *
+   * Output:
+   *      None
+  */
+  private void writeChunk(Writer writer, Chunk chunk) throws IOException {
+    for (int i = 0; i < chunk.count; i++) {
+      byte kind = chunk.kinds[i];
+      if (kind == BLANK) continue;
+
+      if (kind == BAD) {
+        System.err.println("Line " + (chunk.firstLine + i) + " is not a puzzle");
+        errors++;
+        continue;
+      }
+
+      puzzles++;
+      if (kind == RAW) raw++;
+
+      PackedKeySet keys = kind == CANONICAL ? canonicalKeys : rawKeys;
+      if (!keys.add(chunk.keys, i * CanonicalKey.LONGS)) continue;
+
+      kept++;
+      writer.write(chunk.lines[i]);
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * printSummary(elapsedNanos)
+   *
+   * Purpose:
+   *      Prints the number of puzzles kept and the rate to stderr
+   *
+   * Input:
+   *      @param elapsedNanos - How long the run took
+   *
+   * Output:
+   *      None
+  */
+  public void printSummary(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    double rate = seconds > 0 ? puzzles / seconds : 0;
+
+    System.err.printf("Kept %d of %d puzzles (%d bad lines, %d only checked exactly) in %.3f s, %.1f puzzles/sec%n",
+        kept, puzzles, errors, raw, seconds, rate);
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * BatchGenerator.java
+ *
+ * Purpose: Generates a stream of puzzle lines from the command line
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - --difficulty picks how hard the puzzles are
+ *  Oct 18, 2026 - Chunks go through the shared ChunkPipeline
+ *  Oct 18, 2026 - Refuses difficulties which can't be made with --clues
+ */
+package sudokusolver;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * BatchGenerator
+ *
+ * Purpose:
+ *      Generates puzzles with one solution (see PuzzleGenerator) and writes
+ *      one puzzle line per puzzle, with '.' in the empty cells.
+ *
+ *      Puzzles are made in chunks, and each chunk is generated as one task
+ *      of a ChunkPipeline. Every worker thread keeps its own generator, and
+ *      each chunk restarts it from a seed made from the chunk's number, so
+ *      the same seed gives the same puzzles with any number of threads.
+ *      Chunks are written in order as soon as they are done.
+ *
+ *      With --difficulty only puzzles graded as that Difficulty are kept,
+ *      and --clues may be at most PuzzleGenerator.maxClues() of it.
+ *
+ *      Usage: --generate [--clues n] [--difficulty d] [--threads n]
+ *                        [--seed s] count [output]
+ */
+public class BatchGenerator {
+
+  // The number of puzzles made by one task
+  private static final int CHUNK_PUZZLES = 64;
+
+  // Spreads chunk numbers out into unrelated seeds
+  private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+  // The state each worker thread reuses for every puzzle it makes
+  private static class Worker {
+    final PuzzleGenerator generator = new PuzzleGenerator(0);
+    final int[] grid = new int[81];
+  }
+
+  // One generated chunk, ready to write
+  private static class Chunk {
+    final char[] out;
+    int length;
+    int puzzles;
+    long clues;
+
+    Chunk(int puzzles) {
+      out = new char[puzzles * (PuzzleFormat.LINE_LENGTH + 1)];
+    }
+  }
+
+  private final int threads;
+  private final int clues;
+  private final Difficulty difficulty;
+  private final long seed;
+  private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+  // Counts for the summary
+  private long puzzles;
+  private long totalClues;
+
+  public BatchGenerator(int clues, int threads, long seed) {
+    this(clues, null, threads, seed);
+  }
+
+  public BatchGenerator(int clues, Difficulty difficulty, int threads, long seed) {
+    if (threads < 1)
+      throw new IllegalArgumentException("At least one thread is needed");
+    if (clues < PuzzleGenerator.MIN_CLUES || clues > 81)
+      throw new IllegalArgumentException("Clues must be " + PuzzleGenerator.MIN_CLUES + " - 81");
+    if (difficulty != null && clues > PuzzleGenerator.maxClues(difficulty))
+      throw new IllegalArgumentException(difficulty + " puzzles can't be made with " + clues
+          + " clues, use at most " + PuzzleGenerator.maxClues(difficulty));
+
+    this.threads = threads;
+    this.clues = clues;
+    this.difficulty = difficulty;
+    this.seed = seed;
+  }
+
+  /**
+   * main(args)
+   *
+   * Purpose:
+   *      Generates puzzles from command line arguments, then prints the
+   *      number of puzzles made per second to stderr
+   *
+   * Input:
+   *      @param args - The arguments after --generate
+   *
+   * Output:
+   *      None
+  */
+  public static void main(String[] args) throws IOException {
+    int clues = 24;
+    Difficulty difficulty = null;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long seed = System.nanoTime();
+    String output = null;
+
+    int i = 0;
+    while (i < args.length && args[i].startsWith("--")) {
+      if (i + 1 >= args.length)
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+
+      if (args[i].equals("--clues")) {
+        clues = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--difficulty")) {
+        difficulty = Difficulty.valueOf(args[i + 1].toUpperCase());
+      } else if (args[i].equals("--threads")) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--seed")) {
+        seed = Long.parseLong(args[i + 1]);
+      } else {
+        throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+      i += 2;
+    }
+    if (i >= args.length)
+      throw new IllegalArgumentException("The number of puzzles is needed");
+
+    long count = Long.parseLong(args[i++]);
+    if (i < args.length) output = args[i++];
+
+    OutputStream out = output == null ? System.out : new FileOutputStream(output);
+
+    BatchGenerator batch = new BatchGenerator(clues, difficulty, threads, seed);
+
+    long start = System.nanoTime();
+    try {
+      batch.run(count, out);
+    } finally {
+      if (out != System.out) out.close();
+    }
+    batch.printSummary(System.nanoTime() - start);
+  }
+
+  /**
+   * run(count, out)
+   *
+   * Purpose:
+   *      Generates puzzles, writing each chunk as soon as it and the chunks
+   *      before it are done
+   *
+   * Input:
+   *      @param count - The number of puzzles to make
+   *      @param out   - Where to write the puzzle lines
+   *
+   * Output:
+   *      None
+  */
+  public void run(long count, OutputStream out) throws IOException {
+    Writer writer = ChunkPipeline.newWriter(out);
+
+    try (ChunkPipeline<Chunk> pipeline = new ChunkPipeline<Chunk>(threads, "generating",
+                                                                  chunk -> writeChunk(writer, chunk))) {
+      long chunkNumber = 0;
+      for (long made = 0; made < count; made += CHUNK_PUZZLES) {
+        final int chunkPuzzles = (int) Math.min(CHUNK_PUZZLES, count - made);
+        final long chunkSeed = seed + chunkNumber++ * SEED_STEP;
+        pipeline.submit(() -> generateChunk(chunkPuzzles, chunkSeed));
+      }
+
+      pipeline.finish();
+      writer.flush();
+    }
+  }
+
+  /**
+   * generateChunk(count, chunkSeed)
+   *
+   * Purpose:
+   *      Makes the puzzles of a chunk with the current thread's generator
+   *
+   * Input:
+   *      @param count     - The number of puzzles in the chunk
+   *      @param chunkSeed - The seed the chunk's puzzles are made from
+   *
+   * Output:
+   *      @return - The chunk's puzzle lines and counts
+  */
+  private Chunk generateChunk(int count, long chunkSeed) {
+    Worker worker = workers.get();
+    worker.generator.setSeed(chunkSeed);
+
+    Chunk chunk = new Chunk(count);
+    for (int i = 0; i < count; i++) {
+      if (difficulty == null) {
+        chunk.clues += worker.generator.generate(clues, worker.grid);
+      } else {
+        chunk.clues += worker.generator.generate(clues, difficulty, worker.grid);
+      }
+      chunk.puzzles++;
+
+      PuzzleFormat.format(worker.grid, chunk.out, chunk.length);
+      chunk.length += PuzzleFormat.LINE_LENGTH;
+      chunk.out[chunk.length++] = '\n';
+    }
+    return chunk;
+  }
+
+  /**
+   * writeChunk(writer, chunk)
+   *
+   * Purpose:
+   *      Writes a generated chunk and adds its counts to the summary
+   *
+   * Input:
+   *      @param writer - Where to write the puzzle lines
+   *      @param chunk  - The generated chunk
+   *
+   * Output:
+   *      None
+  */
+  private void writeChunk(Writer writer, Chunk chunk) throws IOException {
+    puzzles += chunk.puzzles;
+    totalClues += chunk.clues;
+
+    writer.write(chunk.out, 0, chunk.length);
+
+    // Puzzles are streamed out, so a reader can start on them right away
+    writer.flush();
+  }
+
+  /**
+   * printSummary(elapsedNanos)
+   *
+   * Purpose:
+   *      Prints the number of puzzles made and the rate to stderr
+   *
+   * Input:
+   *      @param elapsedNanos - How long the batch took
+   *
+   * Output:
+   *      None
+  */
+  public void printSummary(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    double rate = seconds > 0 ? puzzles / seconds : 0;
+    double average = puzzles > 0 ? (double) totalClues / puzzles : 0;
+
+    System.err.printf("Generated %d puzzles (%.1f clues on average) in %.3f s, %.1f puzzles/sec%n",
+        puzzles, average, seconds, rate);
+  }
+}
@@ -0,0 +1,559 @@
+/*
+ * BatchSolver.java
+ *
+ * Purpose: Solves a stream of puzzle lines from the command line
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Solves chunks of lines in parallel on a ForkJoinPool
+ *  Oct 18, 2026 - Memory mapped input with --mmap
+ *  Oct 18, 2026 - Grades solved puzzles with --grade
+ *  Oct 18, 2026 - Shared solution cache with --cache
+ *  Oct 18, 2026 - Binary puzzle records as input with --binary
+ *  Oct 18, 2026 - 16x16 and 25x25 puzzle lines with --box-size
+ *  Oct 18, 2026 - Solves into each worker's own grid, no allocation
+ *  Oct 18, 2026 - Solver metrics over JMX with --metrics
+ *  Oct 18, 2026 - Chunks go through the shared ChunkPipeline
+ */
+package sudokusolver;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * BatchSolver
+ *
+ * Purpose:
+ *      Reads puzzles one line at a time (see PuzzleFormat), solves them and
+ *      writes one line per puzzle. Solved puzzles are written as their
+ *      solution, any other puzzle is written as far as it got with '.' in
+ *      the empty cells. Blank lines are skipped and lines which are not
+ *      puzzles are reported on stderr.
+ *
+ *      Lines are read in chunks, and each chunk is solved as one task of a
+ *      ChunkPipeline. Every worker thread keeps its own engine, so no solver
+ *      state is shared. Results are written in input order, and only a few
+ *      chunks per thread are held in memory at a time.
+ *
+ *      With --mmap the input file is memory mapped instead (see
+ *      MappedPuzzleReader), which needs every line to be exactly 81
+ *      characters and '\n'. With --binary the input file holds puzzle
+ *      records (see BinaryPuzzleFormat) and is memory mapped the same way.
+ *
+ *      With --grade each solved puzzle's line is followed by a space and
+ *      its Difficulty, and the summary counts each difficulty. Grading
+ *      needs the propagation engine.
+ *
+ *      With --cache n every worker looks puzzles up in one SolutionCache
+ *      of up to n solutions before solving them (see CachingEngine). It
+ *      can't be used with --grade, as a cached puzzle is not solved.
+ *
+ *      With --box-size n the lines are n^4 character puzzles with n x n
+ *      boxes (see PuzzleFormat), 4 for 16x16 or 5 for 25x25. They are
+ *      solved by the propagation engine, without a cache, --mmap or
+ *      --binary.
+ *
+ *      With --metrics every worker's engine adds to one SolverMetrics,
+ *      registered over JMX for the length of the run, and the summary
+ *      gives the solve times and the work of each stage.
+ *
+ *      Usage: --batch [--engine propagation|dlx] [--threads n] [--mmap]
+ *                     [--binary] [--grade] [--cache n] [--box-size n]
+ *                     [--metrics] [input|- [output]]
+ */
+public class BatchSolver {
+
+  // The number of lines solved by one task
+  private static final int CHUNK_LINES = 2048;
+
+  // The most characters a grade adds to a line, a space and the name
+  private static final int GRADE_LENGTH = 1 + longestName(Difficulty.values());
+
+  // The state each worker thread reuses for every puzzle it solves
+  private static class Worker {
+    final SolverEngine engine;
+    final int boxSize;
+    final int[] grid;
+    final int[] solution;
+
+    Worker(EngineType type, SolutionCache cache, int boxSize, SolverMetrics metrics) {
+      if (boxSize != 3) {
+        engine = new PropagationEngine(boxSize);
+      } else {
+        engine = cache == null ? type.newEngine() : new CachingEngine(type.newEngine(), cache);
+      }
+      engine.setMetrics(metrics);
+      this.boxSize = boxSize;
+      this.grid = new int[PuzzleFormat.lineLength(boxSize)];
+      this.solution = new int[grid.length];
+    }
+  }
+
+  // The results of solving one chunk, ready to write
+  private static class Chunk {
+    final char[] out;
+    int length;
+    int puzzles;
+    int solved;
+
+    // The number of solved puzzles of each difficulty, by ordinal()
+    final int[] grades = new int[Difficulty.values().length];
+
+    // The line numbers of lines which were not puzzles
+    long[] badLines = new long[0];
+
+    Chunk(int lines, int lineLength) {
+      out = new char[lines * (lineLength + GRADE_LENGTH + 1)];
+    }
+
+    void addBadLine(long lineNumber) {
+      badLines = Arrays.copyOf(badLines, badLines.length + 1);
+      badLines[badLines.length - 1] = lineNumber;
+    }
+  }
+
+  private final int threads;
+  private final boolean grade;
+  private final int boxSize;
+  private final SolutionCache cache;
+  private final ThreadLocal<Worker> workers;
+
+  // What the workers' engines add to, or null
+  private SolverMetrics metrics;
+
+  // Counts for the summary
+  private long puzzles;
+  private long solved;
+  private long errors;
+  private final long[] grades = new long[Difficulty.values().length];
+
+  public BatchSolver(EngineType type, int threads) {
+    this(type, threads, false);
+  }
+
+  public BatchSolver(EngineType type, int threads, boolean grade) {
+    this(type, threads, grade, 0);
+  }
+
+  public BatchSolver(EngineType type, int threads, boolean grade, int cacheSize) {
+    this(type, threads, grade, cacheSize, 3);
+  }
+
+  public BatchSolver(EngineType type, int threads, boolean grade, int cacheSize, int boxSize) {
+    if (threads < 1)
+      throw new IllegalArgumentException("At least one thread is needed");
+    if (grade && type != EngineType.PROPAGATION)
+      throw new IllegalArgumentException("Grading needs the propagation engine");
+    if (grade && cacheSize > 0)
+      throw new IllegalArgumentException("Grading can't be used with a cache");
+    if (boxSize < SudokuPuzzle.MIN_BOX_SIZE || boxSize > SudokuPuzzle.MAX_BOX_SIZE)
+      throw new IllegalArgumentException("The box size must be " + SudokuPuzzle.MIN_BOX_SIZE
+          + " - " + SudokuPuzzle.MAX_BOX_SIZE);
+    if (boxSize != 3 && type != EngineType.PROPAGATION)
+      throw new IllegalArgumentException("Only the propagation engine solves other box sizes");
+    if (boxSize != 3 && cacheSize > 0)
+      throw new IllegalArgumentException("Only 9x9 puzzles can be cached");
+
+    this.threads = threads;
+    this.grade = grade;
+    this.boxSize = boxSize;
+    this.cache = cacheSize > 0 ? new SolutionCache(cacheSize) : null;
+    this.workers = ThreadLocal.withInitial(() -> new Worker(type, cache, boxSize, metrics));
+  }
+
+  /**
+   * main(args)
+   *
+   * Purpose:
+   *      Runs a batch from command line arguments, then prints the number
+   *      of puzzles solved per second to stderr
+   *
+   * Input:
+   *      @param args - The arguments after --batch
+   *
+   * Output:
+   *      None
+  */
+  public static void main(String[] args) throws IOException {
+    EngineType type = EngineType.PROPAGATION;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String input = "-";
+    String output = null;
+
+    boolean mapped = false;
+    boolean binary = false;
+    boolean grade = false;
+    boolean measure = false;
+    int cacheSize = 0;
+    int boxSize = 3;
+
+    int i = 0;
+    while (i < args.length && args[i].startsWith("--")) {
+      if (args[i].equals("--mmap")) {
+        mapped = true;
+        i++;
+        continue;
+      }
+      if (args[i].equals("--binary")) {
+        binary = true;
+        i++;
+        continue;
+      }
+      if (args[i].equals("--grade")) {
+        grade = true;
+        i++;
+        continue;
+      }
+      if (args[i].equals("--metrics")) {
+        measure = true;
+        i++;
+        continue;
+      }
+      if (i + 1 >= args.length)
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+
+      if (args[i].equals("--engine")) {
+        type = parseEngineType(args[i + 1]);
+      } else if (args[i].equals("--threads")) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--cache")) {
+        cacheSize = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--box-size")) {
+        boxSize = Integer.parseInt(args[i + 1]);
+      } else {
+        throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+      i += 2;
+    }
+    if (i < args.length) input = args[i++];
+    if (i < args.length) output = args[i++];
+
+    if (mapped && input.equals("-"))
+      throw new IllegalArgumentException("--mmap needs an input file");
+    if (binary && input.equals("-"))
+      throw new IllegalArgumentException("--binary needs an input file");
+    if ((mapped || binary) && boxSize != 3)
+      throw new IllegalArgumentException("--mmap and --binary only read 9x9 puzzles");
+
+    OutputStream out = output == null ? System.out : new FileOutputStream(output);
+
+    BatchSolver batch = new BatchSolver(type, threads, grade, cacheSize, boxSize);
+    if (measure) {
+      SolverMetrics metrics = new SolverMetrics();
+      metrics.register();
+      batch.setMetrics(metrics);
+    }
+
+    long start = System.nanoTime();
+    try {
+      if (mapped || binary) {
+        try (MappedPuzzleReader reader = new MappedPuzzleReader(Paths.get(input), binary)) {
+          batch.run(reader, out);
+        }
+      } else {
+        InputStream in = input.equals("-") ? System.in : new FileInputStream(input);
+        try {
+          batch.run(in, out);
+        } finally {
+          if (in != System.in) in.close();
+        }
+      }
+    } finally {
+      if (out != System.out) out.close();
+    }
+    batch.printSummary(System.nanoTime() - start);
+  }
+
+  /**
+   * run(in, out)
+   *
+   * Purpose:
+   *      Solves every puzzle line of in, writing the results in the same
+   *      order as the lines
+   *
+   * Input:
+   *      @param in  - The puzzle lines
+   *      @param out - Where to write the result lines
+   *
+   * Output:
+   *      None
+  */
+  public void run(InputStream in, OutputStream out) throws IOException {
+    BufferedReader reader = ChunkPipeline.newReader(in);
+    Writer writer = ChunkPipeline.newWriter(out);
+
+    try (ChunkPipeline<Chunk> pipeline = new ChunkPipeline<Chunk>(threads, "solving",
+                                                                  chunk -> writeChunk(writer, chunk))) {
+      long lineNumber = 1;
+      String[] lines = new String[CHUNK_LINES];
+      int count;
+      while ((count = ChunkPipeline.readLines(reader, lines)) > 0) {
+        final String[] chunkLines = lines;
+        final int chunkCount = count;
+        final long firstLine = lineNumber;
+        pipeline.submit(() -> solveChunk(chunkLines, chunkCount, firstLine));
+
+        lineNumber += count;
+        lines = new String[CHUNK_LINES];
+      }
+
+      pipeline.finish();
+      writer.flush();
+    }
+  }
+
+  /**
+   * run(reader, out)
+   *
+   * Purpose:
+   *      Solves every record of a mapped puzzle file, writing the results
+   *      in the same order as the records. Each chunk is its own range of
+   *      records, decoded by the worker which solves it straight from the
+   *      mapped file. Workers share the segments, which is safe as reads
+   *      don't move the mapped buffers
+   *
+   * Input:
+   *      @param reader - The mapped puzzle file
+   *      @param out    - Where to write the result lines
+   *
+   * Output:
+   *      None
+  */
+  public void run(MappedPuzzleReader reader, OutputStream out) throws IOException {
+    Writer writer = ChunkPipeline.newWriter(out);
+
+    try (ChunkPipeline<Chunk> pipeline = new ChunkPipeline<Chunk>(threads, "solving",
+                                                                  chunk -> writeChunk(writer, chunk))) {
+      for (MappedPuzzleReader.Segment segment : reader.segments()) {
+        for (int first = 0; first < segment.getPuzzleCount(); first += CHUNK_LINES) {
+          final int chunkFirst = first;
+          final int chunkCount = Math.min(CHUNK_LINES, segment.getPuzzleCount() - first);
+          pipeline.submit(() -> solveChunk(segment, chunkFirst, chunkCount));
+        }
+      }
+
+      pipeline.finish();
+      writer.flush();
+    }
+  }
+
+  /**
+   * solveChunk(lines, count, firstLine)
+   *
+   * Purpose:
+   *      Solves the puzzles of a chunk with the current thread's engine
+   *
+   * Input:
+   *      @param lines     - The chunk's lines
+   *      @param count     - The number of lines in the chunk
+   *      @param firstLine - The line number of the first line
+   *
+   * Output:
+   *      @return - The chunk's result lines and counts
+  */
+  private Chunk solveChunk(String[] lines, int count, long firstLine) {
+    Worker worker = workers.get();
+    Chunk chunk = new Chunk(count, worker.grid.length);
+
+    for (int i = 0; i < count; i++) {
+      String text = lines[i];
+
+      if (text.trim().isEmpty()) continue;
+
+      if (!PuzzleFormat.parse(text, worker.grid, boxSize)) {
+        chunk.addBadLine(firstLine + i);
+        continue;
+      }
+
+      solveInto(worker, chunk, grade);
+    }
+    return chunk;
+  }
+
+  /**
+   * solveChunk(segment, first, count)
+   *
+   * Purpose:
+   *      Solves records of a mapped segment with the current thread's engine
+   *
+   * Input:
+   *      @param segment - The mapped records
+   *      @param first   - The index in the segment of the chunk's first record
+   *      @param count   - The number of records in the chunk
+   *
+   * Output:
+   *      @return - The chunk's result lines and counts
+  */
+  private Chunk solveChunk(MappedPuzzleReader.Segment segment, int first, int count) {
+    Worker worker = workers.get();
+    Chunk chunk = new Chunk(count, PuzzleFormat.LINE_LENGTH);
+
+    for (int i = first; i < first + count; i++) {
+      if (!segment.read(i, worker.grid)) {
+        chunk.addBadLine(segment.getFirstIndex() + i + 1);
+        continue;
+      }
+
+      solveInto(worker, chunk, grade);
+    }
+    return chunk;
+  }
+
+  /**
+   * solveInto(worker, chunk, grade)
+   *
+   * Purpose:
+   *      Solves the worker's grid and adds the result line to the chunk
+   *
+   * Input:
+   *      @param worker - The current thread's worker, holding the puzzle
+   *      @param chunk  - The chunk to add the result to
+   *      @param grade  - Whether to add the difficulty of a solved puzzle
+   *
+   * Output:
+   *      None
+  */
+  private static void solveInto(Worker worker, Chunk chunk, boolean grade) {
+    boolean solved = worker.engine.solveInto(worker.grid, worker.solution) == SolveResult.Status.SOLVED;
+    chunk.puzzles++;
+    if (solved) chunk.solved++;
+
+    PuzzleFormat.format(worker.solution, chunk.out, chunk.length, worker.boxSize);
+    chunk.length += worker.grid.length;
+
+    if (grade && solved) {
+      Difficulty difficulty = ((PropagationEngine) worker.engine).getDifficulty();
+      chunk.grades[difficulty.ordinal()]++;
+
+      String name = difficulty.name();
+      chunk.out[chunk.length++] = ' ';
+      name.getChars(0, name.length(), chunk.out, chunk.length);
+      chunk.length += name.length();
+    }
+    chunk.out[chunk.length++] = '\n';
+  }
+
+  /**
+   * writeChunk(writer, chunk)
+   *
+   * Purpose:
+   *      Writes a solved chunk and adds its counts to the summary
+   *
+   * Input:
+   *      @param writer - Where to write the result lines
+   *      @param chunk  - The solved chunk
+   *
+   * Output:
+   *      None
+  */
+  private void writeChunk(Writer writer, Chunk chunk) throws IOException {
+    for (long lineNumber : chunk.badLines) {
+      System.err.println("Line " + lineNumber + " is not a puzzle");
+    }
+    errors += chunk.badLines.length;
+    puzzles += chunk.puzzles;
+    solved += chunk.solved;
+    for (int i = 0; i < grades.length; i++) {
+      grades[i] += chunk.grades[i];
+    }
+
+    writer.write(chunk.out, 0, chunk.length);
+  }
+
+  /**
+   * setMetrics(metrics)
+   *
+   * Purpose:
+   *      Sets what the workers' engines add each solve to. It must be set
+   *      before the first run
+   *
+   * Input:
+   *      @param metrics - The metrics, OR null to not measure anything
+   *
+   * Output:
+   *      None
+  */
+  public void setMetrics(SolverMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * printSummary(elapsedNanos)
+   *
+   * Purpose:
+   *      Prints the number of puzzles solved and the rate to stderr
+   *
+   * Input:
+   *      @param elapsedNanos - How long the batch took
+   *
+   * Output:
+   *      None
+  */
+  public void printSummary(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    double rate = seconds > 0 ? puzzles / seconds : 0;
+
+    System.err.printf("Solved %d of %d puzzles (%d bad lines) in %.3f s, %.1f puzzles/sec%n",
+        solved, puzzles, errors, seconds, rate);
+
+    if (cache != null) {
+      System.err.printf("  Cache hits: %d of %d lookups%n", cache.getHits(), cache.getLookups());
+    }
+
+    if (metrics != null) metrics.printSummary();
+
+    if (!grade) return;
+    for (Difficulty difficulty : Difficulty.values()) {
+      System.err.printf("  %-" + (GRADE_LENGTH - 1) + "s %d%n", difficulty, grades[difficulty.ordinal()]);
+    }
+  }
+
+  /**
+   * longestName(values)
+   *
+   * Purpose:
+   *      Finds the length of the longest name of some enum values
+   *
+   * Input:
+   *      @param values - The enum values
+   *
+   * Output:
+   *      @return - The number of characters in the longest name
+  */
+  private static int longestName(Enum<?>[] values) {
+    int rt = 0;
+    for (Enum<?> value : values) {
+      rt = Math.max(rt, value.name().length());
+    }
+    return rt;
+  }
+
+  /**
+   * parseEngineType(name)
+   *
+   * Purpose:
+   *      Gives the engine type for a command line name
+   *
+   * Input:
+   *      @param name - "propagation", "dlx" or an EngineType name
+   *
+   * Output:
+   *      @return - The engine type
+   *
+   * Effects:
+   *      Throws IllegalArgumentException if the name is not an engine
+  */
+  static EngineType parseEngineType(String name) {
+    if (name.equalsIgnoreCase("dlx")) return EngineType.DANCING_LINKS;
+    return EngineType.valueOf(name.toUpperCase());
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * BinaryPuzzleFormat.java
+ *
+ * Purpose: Reads and writes puzzles as 41 byte records
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Removed decoding into a SudokuPuzzle, records are decoded
+ *                 into grids and loaded with SudokuPuzzle.load()
+ */
+package sudokusolver;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BinaryPuzzleFormat
+ *
+ * Purpose:
+ *      A puzzle record holds each cell in 4 bits, two cells to a byte in row
+ *      order with the first cell in the high bits. A cell is 0 when empty,
+ *      or 1 - 9. Cell 80 is the high bits of the last byte, and the low
+ *      bits of that byte are 0. Records are stored back to back with
+ *      nothing between them, so a file is half the size of puzzle lines
+ *      and the n-th puzzle starts at byte n * RECORD_LENGTH.
+ */
+public final class BinaryPuzzleFormat {
+
+  // The number of bytes in a puzzle record
+  public static final int RECORD_LENGTH = 41;
+
+  private BinaryPuzzleFormat() {
+  }
+
+  /**
+   * decode(buffer, offset, grid)
+   *
+   * Purpose:
+   *      Reads a puzzle record into a grid
+   *
+   * Input:
+   *      @param buffer - The bytes holding the record
+   *      @param offset - The index of the record's first byte
+   *      @param grid   - The 81 value grid to fill in
+   *
+   * Output:
+   *      @return - false if the bytes are not a puzzle (grid is then partial)
+  */
+  public static boolean decode(ByteBuffer buffer, int offset, int[] grid) {
+    if (offset < 0 || offset + RECORD_LENGTH > buffer.limit()) return false;
+
+    for (int i = 0; i < RECORD_LENGTH; i++) {
+      int b = buffer.get(offset + i) & 0xFF;
+      int high = b >>> 4;
+      int low = b & 0xF;
+
+      if (high > 9 || low > 9) return false;
+      grid[2 * i] = high;
+
+      // The last byte only holds cell 80
+      if (i == RECORD_LENGTH - 1) return low == 0;
+      grid[2 * i + 1] = low;
+    }
+    return true;
+  }
+
+  /**
+   * encode(grid, out, offset)
+   *
+   * Purpose:
+   *      Writes a grid as a puzzle record
+   *
+   * Input:
+   *      @param grid   - The 81 value grid
+   *      @param out    - The bytes to write the record into
+   *      @param offset - Where in out to write the first byte
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      Throws NumberFormatException if a value is not 0-9
+  */
+  public static void encode(int[] grid, byte[] out, int offset) {
+    for (int i = 0; i < RECORD_LENGTH; i++) {
+      int high = grid[2 * i];
+      int low = i == RECORD_LENGTH - 1 ? 0 : grid[2 * i + 1];
+
+      if (high < 0 || high > 9 || low < 0 || low > 9)
+        throw new NumberFormatException();
+
+      out[offset + i] = (byte) (high << 4 | low);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * BinaryPuzzleReader.java
+ *
+ * Purpose: Reads puzzle records one at a time from a stream
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Removed read(puzzle), use read(grid) and SudokuPuzzle.load()
+ */
+package sudokusolver;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * BinaryPuzzleReader
+ *
+ * Purpose:
+ *      Reads a stream of puzzle records (see BinaryPuzzleFormat) into
+ *      grids. Records are read many at a time into one buffer, which is
+ *      reused for the whole stream.
+ */
+public class BinaryPuzzleReader implements Closeable {
+
+  // The number of records read from the stream at once
+  private static final int BUFFER_RECORDS = 1 << 12;
+
+  private final InputStream in;
+  private final byte[] bytes = new byte[BUFFER_RECORDS * BinaryPuzzleFormat.RECORD_LENGTH];
+  private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+  // The index of the next record's first byte, and the end of the bytes read
+  private int position;
+  private int limit;
+
+  // The number of records read so far
+  private long recordCount;
+
+  public BinaryPuzzleReader(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * getRecordCount()
+   *
+   * Purpose:
+   *      Returns the number of records read so far
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of records
+  */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * next()
+   *
+   * Purpose:
+   *      Moves to the next record, reading more of the stream if needed
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - false at the end of the stream
+   *
+   * Effects:
+   *      Throws EOFException if the stream ends part way through a record
+  */
+  public boolean next() throws IOException {
+    if (recordCount > 0) position += BinaryPuzzleFormat.RECORD_LENGTH;
+
+    if (limit - position < BinaryPuzzleFormat.RECORD_LENGTH) {
+      int left = limit - position;
+      System.arraycopy(bytes, position, bytes, 0, left);
+      position = 0;
+      limit = left;
+
+      int read;
+      while (limit < bytes.length && (read = in.read(bytes, limit, bytes.length - limit)) > 0) {
+        limit += read;
+      }
+
+      if (limit == 0) return false;
+      if (limit < BinaryPuzzleFormat.RECORD_LENGTH)
+        throw new EOFException("The last record is only " + limit + " bytes");
+    }
+
+    recordCount++;
+    return true;
+  }
+
+  /**
+   * read(grid)
+   *
+   * Purpose:
+   *      Decodes the current record into a grid
+   *
+   * Input:
+   *      @param grid - The 81 value grid to fill in
+   *
+   * Output:
+   *      @return - false if the record is not a puzzle (grid is then
+   *                partial)
+  */
+  public boolean read(int[] grid) {
+    return BinaryPuzzleFormat.decode(buffer, position, grid);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * BinaryPuzzleWriter.java
+ *
+ * Purpose: Writes puzzle records to a stream
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * BinaryPuzzleWriter
+ *
+ * Purpose:
+ *      Writes grids to a stream as puzzle records (see BinaryPuzzleFormat).
+ *      Records are gathered into one buffer and written many at a time.
+ */
+public class BinaryPuzzleWriter implements Closeable, Flushable {
+
+  // The number of records written to the stream at once
+  private static final int BUFFER_RECORDS = 1 << 12;
+
+  private final OutputStream out;
+  private final byte[] bytes = new byte[BUFFER_RECORDS * BinaryPuzzleFormat.RECORD_LENGTH];
+  private int length;
+
+  public BinaryPuzzleWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * write(grid)
+   *
+   * Purpose:
+   *      Adds a grid to the stream as one record
+   *
+   * Input:
+   *      @param grid - The 81 value grid
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      Throws NumberFormatException if a value is not 0-9
+  */
+  public void write(int[] grid) throws IOException {
+    if (length == bytes.length) {
+      out.write(bytes, 0, length);
+      length = 0;
+    }
+
+    BinaryPuzzleFormat.encode(grid, bytes, length);
+    length += BinaryPuzzleFormat.RECORD_LENGTH;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.write(bytes, 0, length);
+    length = 0;
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+}
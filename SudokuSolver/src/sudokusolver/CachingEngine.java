@@ -0,0 +1,106 @@
+/*
+ * CachingEngine.java
+ *
+ * Purpose: Puts a SolutionCache in front of another engine
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Passes metrics on to the other engine
+ *  Oct 18, 2026 - Looks up packed canonical keys
+ *  Oct 18, 2026 - solveInto() without allocating on a cache hit
+ */
+package sudokusolver;
+
+/**
+ * CachingEngine
+ *
+ * Purpose:
+ *      Before solving a puzzle, looks up its canonical form in the cache.
+ *      On a hit the cached solution is changed back into the puzzle's
+ *      layout, so puzzles which are relabelings, transpositions or row and
+ *      column reorderings of an earlier one are not solved again. On a
+ *      miss the other engine solves it, and a solved puzzle's solution is
+ *      cached in the canonical layout.
+ *
+ *      Puzzles the Canonicalizer gives up on are solved without the cache
+ */
+public class CachingEngine implements SolverEngine {
+
+  private final SolverEngine engine;
+  private final SolutionCache cache;
+  private final Canonicalizer canonicalizer = new Canonicalizer();
+
+  // Working space
+  private final int[] canonical = new int[81];
+  private final long[] key = new long[CanonicalKey.LONGS];
+  private final int[] cached = new int[81];
+
+  public CachingEngine(SolverEngine engine, SolutionCache cache) {
+    this.engine = engine;
+    this.cache = cache;
+  }
+
+  @Override
+  public SolveResult solve(int[] grid) {
+    int[] solution = new int[81];
+    SolveResult.Status status = solveInto(grid, solution);
+    return new SolveResult(status, solution);
+  }
+
+  /**
+   * solveInto(grid, solution)
+   *
+   * Purpose:
+   *      Gives the cached solution of the given puzzle, or solves it with
+   *      the other engine and caches the solution, writing the grid after
+   *      solving into the caller's array. A cache hit allocates nothing
+   *
+   * Input:
+   *      @param grid     - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param solution - Where to write the grid after solving, may be
+   *                        grid itself
+   *
+   * Output:
+   *      @return - How far the engine got with the puzzle
+  */
+  @Override
+  public SolveResult.Status solveInto(int[] grid, int[] solution) {
+    if (grid.length != 81 || solution.length != 81)
+      throw new IllegalArgumentException("A grid must have 81 cells");
+
+    if (!canonicalizer.canonicalize(grid, canonical)) return engine.solveInto(grid, solution);
+
+    CanonicalKey.pack(canonical, key, 0);
+    if (cache.get(key, cached)) {
+      canonicalizer.toOriginal(cached, solution);
+      return SolveResult.Status.SOLVED;
+    }
+
+    SolveResult.Status status = engine.solveInto(grid, solution);
+    if (status == SolveResult.Status.SOLVED) {
+      canonicalizer.fromOriginal(solution, cached);
+      cache.put(key, cached);
+    }
+    return status;
+  }
+
+  /**
+   * setMetrics(metrics)
+   *
+   * Purpose:
+   *      Sets the other engine's metrics. Puzzles answered from the cache
+   *      are not solved, so they are not counted
+   *
+   * Input:
+   *      @param metrics - The metrics, OR null to not measure anything
+   *
+   * Output:
+   *      None
+  */
+  @Override
+  public void setMetrics(SolverMetrics metrics) {
+    engine.setMetrics(metrics);
+  }
+}
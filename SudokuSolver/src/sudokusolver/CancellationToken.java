@@ -0,0 +1,56 @@
+/*
+ * CancellationToken.java
+ *
+ * Purpose: Lets another thread stop a solve which is running
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+/**
+ * CancellationToken
+ *
+ * Purpose:
+ *      Passed to a solve in its SolveLimits. Once cancel() is called by any
+ *      thread, the solve stops at its next check and returns CANCELLED.
+ *      A token stays cancelled, so make a new one for each request
+ */
+public class CancellationToken {
+
+  private volatile boolean cancelled;
+
+  /**
+   * cancel()
+   *
+   * Purpose:
+   *      Asks every solve using this token to stop
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * isCancelled()
+   *
+   * Purpose:
+   *      Returns if cancel() has been called
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - true once the token is cancelled
+  */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * CandidateMask.java
+ *
+ * Purpose: Helpers for storing a cell's possible values as a 9-bit mask
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - all(size) for grids bigger than 9x9
+ */
+package sudokusolver;
+
+/**
+ * CandidateMask
+ *
+ * Purpose:
+ *      Bit (val - 1) of a mask is set when val (1-9) is a possible value.
+ *      Keeping candidates as a primitive int avoids boxing every value into
+ *      a collection and lets a whole cell be tested with a single AND.
+ *      Bigger grids use the same masks with up to 25 values.
+ */
+final class CandidateMask {
+
+  // Every value 1-9 is possible
+  static final int ALL = 0x1FF;
+
+  private CandidateMask() {
+  }
+
+  /**
+   * all(size)
+   *
+   * Purpose:
+   *      Gives the mask of every value of a grid
+   *
+   * Input:
+   *      @param size - The largest value (9 for a 9x9 grid, at most 31)
+   *
+   * Output:
+   *      @return - The mask with the bits of 1 - size set
+  */
+  static int all(int size) {
+    return (1 << size) - 1;
+  }
+
+  /**
+   * bit(val)
+   *
+   * Purpose:
+   *      Gives the mask bit which represents a value
+   *
+   * Input:
+   *      @param val - The value (1-9)
+   *
+   * Output:
+   *      @return - The mask with only val's bit set
+  */
+  static int bit(int val) {
+    return 1 << (val - 1);
+  }
+
+  /**
+   * contains(mask, val)
+   *
+   * Purpose:
+   *      Checks if a value is one of the mask's possible values
+   *
+   * Input:
+   *      @param mask - The candidate mask
+   *      @param val  - The value (1-9)
+   *
+   * Output:
+   *      @return - true if val is possible, false otherwise
+  */
+  static boolean contains(int mask, int val) {
+    return (mask & bit(val)) != 0;
+  }
+
+  /**
+   * count(mask)
+   *
+   * Purpose:
+   *      Gives the number of possible values in the mask
+   *
+   * Input:
+   *      @param mask - The candidate mask
+   *
+   * Output:
+   *      @return - The number of set bits
+  */
+  static int count(int mask) {
+    return Integer.bitCount(mask);
+  }
+
+  /**
+   * lowest(mask)
+   *
+   * Purpose:
+   *      Gives the smallest possible value in the mask
+   *
+   * Input:
+   *      @param mask - The candidate mask (must not be 0)
+   *
+   * Output:
+   *      @return - The smallest value (1-9) whose bit is set
+  */
+  static int lowest(int mask) {
+    return Integer.numberOfTrailingZeros(mask) + 1;
+  }
+}
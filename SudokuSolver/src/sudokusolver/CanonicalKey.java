@@ -0,0 +1,83 @@
+/*
+ * CanonicalKey.java
+ *
+ * Purpose: Packs a grid into a few longs, to use as a compact key
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+/**
+ * CanonicalKey
+ *
+ * Purpose:
+ *      A grid's 81 values (0-9) are packed as base 10 digits, 18 cells to a
+ *      long (10^18 fits in a long), so a key is 5 longs (40 bytes) instead
+ *      of an 81 character String. Two grids have the same key only if they
+ *      are the same grid.
+ *      Format: key[i] == sum of grid[i * 18 + j] * 10^j for j = 0 - 17
+ */
+public final class CanonicalKey {
+
+  // The number of longs in a key
+  public static final int LONGS = 5;
+
+  // The number of cells packed in each long
+  private static final int CELLS_PER_LONG = 18;
+
+  private CanonicalKey() {
+  }
+
+  /**
+   * pack(grid, key, offset)
+   *
+   * Purpose:
+   *      Packs a grid into a key
+   *
+   * Input:
+   *      @param grid   - 81 values in row order, each 0-9
+   *      @param key    - The longs to pack into
+   *      @param offset - Where in key the LONGS longs go
+   *
+   * Output:
+   *      None
+  */
+  public static void pack(int[] grid, long[] key, int offset) {
+    for (int i = 0; i < LONGS; i++) {
+      long packed = 0;
+      int end = Math.min(81, (i + 1) * CELLS_PER_LONG);
+      for (int cell = end - 1; cell >= i * CELLS_PER_LONG; cell--) {
+        packed = packed * 10 + grid[cell];
+      }
+      key[offset + i] = packed;
+    }
+  }
+
+  /**
+   * unpack(key, offset, grid)
+   *
+   * Purpose:
+   *      Gets a grid back out of a key
+   *
+   * Input:
+   *      @param key    - The longs holding the key
+   *      @param offset - Where in key the key starts
+   *      @param grid   - The 81 value grid to fill
+   *
+   * Output:
+   *      None
+  */
+  public static void unpack(long[] key, int offset, int[] grid) {
+    for (int i = 0; i < LONGS; i++) {
+      long packed = key[offset + i];
+      int end = Math.min(81, (i + 1) * CELLS_PER_LONG);
+      for (int cell = i * CELLS_PER_LONG; cell < end; cell++) {
+        grid[cell] = (int) (packed % 10);
+        packed /= 10;
+      }
+    }
+  }
+}
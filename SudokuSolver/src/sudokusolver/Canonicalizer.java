@@ -0,0 +1,555 @@
+/*
+ * Canonicalizer.java
+ *
+ * Purpose: Finds one form shared by every puzzle which is the same puzzle
+ *          with its rows, columns and values moved around
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Orders lines by invariant keys instead of searching
+ */
+package sudokusolver;
+
+import java.util.Arrays;
+
+/**
+ * Canonicalizer
+ *
+ * Purpose:
+ *      These changes to a grid keep it a valid sudoku, and keep the number
+ *      of solutions the same:
+ *          - Transposing it (rows become columns)
+ *          - Reordering the bands (groups of 3 rows), and the rows in a band
+ *          - Reordering the stacks (groups of 3 cols), and the cols in a stack
+ *          - Relabeling the values 1-9
+ *      The canonical form is the same for every grid these changes turn
+ *      into each other.
+ *
+ *      Each row and col gets a key which none of the changes alter. The
+ *      keys start from how often each cell's value is used in the grid,
+ *      and are refined a few times from the keys of the crossing lines,
+ *      grouped by band or stack. Each band and stack gets a key from its
+ *      lines' keys. The rows are then put in order of band key, and of
+ *      row key within each band, and the cols the same way. Lines (or
+ *      bands and stacks) with equal keys can go in any order, so every
+ *      such ordering is tried, and the smallest grid they give is the
+ *      canonical form, compared cell by cell in row order with empty cells
+ *      smallest. Values are relabeled in the order they first show up, so
+ *      every relabeling gives the same form. Whether to transpose is picked
+ *      by the keys too, and both ways are tried when they are equal.
+ *
+ *      Most puzzles have one or a few orderings to try. Grids with a lot
+ *      of symmetry or few clues (an empty grid has every ordering) can have
+ *      thousands, so it gives up past MAX_CANDIDATES.
+ *
+ *      The change to the last canonicalized grid is kept, so a solution of
+ *      the canonical form can be changed back into a solution of the grid.
+ *      A canonicalizer keeps working state, so it should only be used by
+ *      one thread at a time
+ */
+public class Canonicalizer {
+
+  // The most orderings tried before giving up
+  public static final int MAX_CANDIDATES = 4096;
+
+  // The number of times the line keys are refined
+  private static final int KEY_ROUNDS = 2;
+
+  // The grid, and the grid transposed
+  private final int[][] sources = new int[2][81];
+
+  // How often each value is used in the grid
+  private final int[] valueCounts = new int[10];
+
+  // The keys of each view's lines and their bands (or stacks)
+  // Format: rowKeys[view][row], bandKeys[view][band] etc.
+  private final long[][] rowKeys = new long[2][9];
+  private final long[][] colKeys = new long[2][9];
+  private final long[][] bandKeys = new long[2][3];
+  private final long[][] stackKeys = new long[2][3];
+
+  // Working space for refining keys
+  private final long[] nextRowKeys = new long[9];
+  private final long[] nextColKeys = new long[9];
+
+  // The smallest order of keys, and the orderings which have it
+  // Format: targets[i] == line key, targets[9 + i] == group key at i
+  private final long[][] rowTargets = new long[2][18];
+  private final long[][] colTargets = new long[2][18];
+  private final int[] sortedGroups = new int[3];
+  private final int[] sortedLines = new int[9];
+
+  // The orderings of one view's lines whose keys match the targets
+  // Format: rowOrders[n * 9 + i] == the row which goes at i in ordering n
+  private final int[] rowOrders = new int[(MAX_CANDIDATES + 1) * 9];
+  private final int[] colOrders = new int[(MAX_CANDIDATES + 1) * 9];
+  private final int[] order = new int[9];
+
+  // The smallest form found, and the change which made it
+  // Format: bestRowMap[row] == source row, bestColMap[col] == source col
+  //         bestLabel[val] == canonical value, 0 if val is not in the grid
+  private final int[] best = new int[81];
+  private boolean haveBest;
+  private int bestTranspose;
+  private final int[] bestRowMap = new int[9];
+  private final int[] bestColMap = new int[9];
+  private final int[] bestLabel = new int[10];
+  private final int[] label = new int[10];
+
+  // Working space for changing values between the two layouts
+  private final int[] valueMap = new int[10];
+  private final boolean[] usedVals = new boolean[10];
+
+  /**
+   * canonicalize(grid, canonical)
+   *
+   * Purpose:
+   *      Finds the canonical form of a grid
+   *
+   * Input:
+   *      @param grid      - 81 values in row order (0 for an empty cell)
+   *      @param canonical - The 81 value grid to put the canonical form in
+   *
+   * Output:
+   *      @return - false if there were too many orderings to try
+   *                (canonical is then not set)
+   *
+   * Effects:
+   *      The change from grid to canonical is kept for toOriginal() and
+   *      fromOriginal()
+  */
+  public boolean canonicalize(int[] grid, int[] canonical) {
+    if (grid.length != 81 || canonical.length != 81)
+      throw new IllegalArgumentException("A grid must have 81 cells");
+
+    Arrays.fill(valueCounts, 0);
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        int val = grid[row * 9 + col];
+        if (val < 0 || val > 9)
+          throw new NumberFormatException();
+
+        sources[0][row * 9 + col] = val;
+        sources[1][col * 9 + row] = val;
+        valueCounts[val]++;
+      }
+    }
+
+    for (int view = 0; view < 2; view++) {
+      computeKeys(view);
+      findTargets(rowKeys[view], bandKeys[view], rowTargets[view]);
+      findTargets(colKeys[view], stackKeys[view], colTargets[view]);
+    }
+
+    // Use the view whose keys come first, or both if they are the same
+    int compare = compareTargets(rowTargets[0], rowTargets[1]);
+    if (compare == 0) compare = compareTargets(colTargets[0], colTargets[1]);
+
+    int firstView = compare <= 0 ? 0 : 1;
+    int lastView = compare >= 0 ? 1 : 0;
+
+    haveBest = false;
+    int candidates = 0;
+    for (int view = firstView; view <= lastView; view++) {
+      int numRowOrders = findOrders(rowKeys[view], bandKeys[view], rowTargets[view], rowOrders, 0, 0, 0);
+      int numColOrders = findOrders(colKeys[view], stackKeys[view], colTargets[view], colOrders, 0, 0, 0);
+
+      candidates += numRowOrders * numColOrders;
+      if (candidates > MAX_CANDIDATES) return false;
+
+      for (int i = 0; i < numRowOrders; i++) {
+        for (int j = 0; j < numColOrders; j++) {
+          tryOrdering(view, i * 9, j * 9);
+        }
+      }
+    }
+
+    System.arraycopy(best, 0, canonical, 0, 81);
+    return true;
+  }
+
+  /**
+   * toOriginal(canonical, grid)
+   *
+   * Purpose:
+   *      Changes a grid in the last canonical form's layout back into the
+   *      layout of the last canonicalized grid. Used to turn a solution of
+   *      the canonical form into a solution of the grid
+   *
+   * Input:
+   *      @param canonical - 81 values in the canonical layout
+   *      @param grid      - The 81 value grid to put the values in
+   *
+   * Output:
+   *      None
+  */
+  public void toOriginal(int[] canonical, int[] grid) {
+    // Canonical values the grid never had go to its unused values
+    int[] unlabel = valueMap;
+    Arrays.fill(unlabel, 0);
+    Arrays.fill(usedVals, false);
+    for (int val = 1; val <= 9; val++) {
+      if (bestLabel[val] != 0) {
+        unlabel[bestLabel[val]] = val;
+        usedVals[val] = true;
+      }
+    }
+    fillSpareValues(unlabel);
+
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        int sourceRow = bestRowMap[row];
+        int sourceCol = bestColMap[col];
+        int cell = bestTranspose == 0 ? sourceRow * 9 + sourceCol : sourceCol * 9 + sourceRow;
+
+        grid[cell] = unlabel[canonical[row * 9 + col]];
+      }
+    }
+  }
+
+  /**
+   * fromOriginal(grid, canonical)
+   *
+   * Purpose:
+   *      Changes a grid in the last canonicalized grid's layout into the
+   *      canonical layout. Used to turn a solution of the grid into a
+   *      solution of the canonical form
+   *
+   * Input:
+   *      @param grid      - 81 values in the original layout, every value
+   *                         which was in the canonicalized grid keeps its
+   *                         place in the relabeling
+   *      @param canonical - The 81 value grid to put the values in
+   *
+   * Output:
+   *      None
+  */
+  public void fromOriginal(int[] grid, int[] canonical) {
+    // Values the grid never had go to the unused canonical values
+    int[] relabel = valueMap;
+    Arrays.fill(usedVals, false);
+    for (int val = 0; val <= 9; val++) {
+      relabel[val] = bestLabel[val];
+      if (val != 0) usedVals[bestLabel[val]] = true;
+    }
+    fillSpareValues(relabel);
+
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        int sourceRow = bestRowMap[row];
+        int sourceCol = bestColMap[col];
+        int cell = bestTranspose == 0 ? sourceRow * 9 + sourceCol : sourceCol * 9 + sourceRow;
+
+        canonical[row * 9 + col] = relabel[grid[cell]];
+      }
+    }
+  }
+
+  /**
+   * fillSpareValues(map)
+   *
+   * Purpose:
+   *      Maps the values 1-9 which map to nothing onto the values not
+   *      mapped to yet, both in increasing order, so the value maps each
+   *      way are the inverse of each other
+   *
+   * Input:
+   *      @param map - map[val] is the value val maps to, or 0 for none
+   *
+   * Output:
+   *      None
+   *
+   * Assumption:
+   *      usedVals[val] is true for each value mapped to
+  */
+  private void fillSpareValues(int[] map) {
+    int spare = 1;
+    for (int val = 1; val <= 9; val++) {
+      if (map[val] != 0) continue;
+      while (usedVals[spare]) spare++;
+      map[val] = spare;
+      usedVals[spare] = true;
+    }
+  }
+
+  /**
+   * computeKeys(view)
+   *
+   * Purpose:
+   *      Gives every row, col, band and stack of a view its key
+   *
+   * Input:
+   *      @param view - 0 for the grid, 1 for the grid transposed
+   *
+   * Output:
+   *      None
+  */
+  private void computeKeys(int view) {
+    int[] cells = sources[view];
+    long[] rows = rowKeys[view];
+    long[] cols = colKeys[view];
+
+    // Start from how often the values in each line are used
+    Arrays.fill(rows, 0);
+    Arrays.fill(cols, 0);
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        long weight = mix(cellWeight(cells[row * 9 + col]));
+        rows[row] += weight;
+        cols[col] += weight;
+      }
+    }
+
+    // Refine each line's key from the lines crossing it, a group at a time
+    for (int round = 0; round < KEY_ROUNDS; round++) {
+      for (int line = 0; line < 9; line++) {
+        long rowKey = mix(rows[line]);
+        long colKey = mix(cols[line]);
+
+        for (int group = 0; group < 3; group++) {
+          long rowGroup = 0;
+          long colGroup = 0;
+          for (int other = group * 3; other < group * 3 + 3; other++) {
+            rowGroup += mix(cols[other] * 31 + cellWeight(cells[line * 9 + other]));
+            colGroup += mix(rows[other] * 31 + cellWeight(cells[other * 9 + line]));
+          }
+          rowKey += mix(rowGroup + 1);
+          colKey += mix(colGroup + 1);
+        }
+        nextRowKeys[line] = rowKey;
+        nextColKeys[line] = colKey;
+      }
+      System.arraycopy(nextRowKeys, 0, rows, 0, 9);
+      System.arraycopy(nextColKeys, 0, cols, 0, 9);
+    }
+
+    for (int group = 0; group < 3; group++) {
+      long bandKey = 0;
+      long stackKey = 0;
+      for (int line = group * 3; line < group * 3 + 3; line++) {
+        bandKey += mix(rows[line]);
+        stackKey += mix(cols[line]);
+      }
+      bandKeys[view][group] = bandKey;
+      stackKeys[view][group] = stackKey;
+    }
+  }
+
+  /**
+   * findTargets(lineKeys, groupKeys, targets)
+   *
+   * Purpose:
+   *      Finds the smallest order of keys an ordering of lines can have,
+   *      groups in order of group key, and lines in order of line key
+   *      within each group
+   *
+   * Input:
+   *      @param lineKeys  - The key of each line
+   *      @param groupKeys - The key of each group of 3 lines
+   *      @param targets   - Where to put the keys at each place, line keys
+   *                         then group keys
+   *
+   * Output:
+   *      None
+  */
+  private void findTargets(long[] lineKeys, long[] groupKeys, long[] targets) {
+    for (int group = 0; group < 3; group++) {
+      sortedGroups[group] = group;
+      for (int i = 0; i < 3; i++) {
+        sortedLines[group * 3 + i] = group * 3 + i;
+      }
+    }
+
+    sortByKey(sortedGroups, 0, 3, groupKeys);
+    for (int group = 0; group < 3; group++) {
+      sortByKey(sortedLines, group * 3, 3, lineKeys);
+    }
+
+    for (int i = 0; i < 9; i++) {
+      int group = sortedGroups[i / 3];
+      targets[i] = lineKeys[sortedLines[group * 3 + i % 3]];
+      targets[9 + i] = groupKeys[group];
+    }
+  }
+
+  /**
+   * findOrders(lineKeys, groupKeys, targets, orders, place, used, found)
+   *
+   * Purpose:
+   *      Finds every ordering of lines whose keys match the targets, by
+   *      filling the places in turn with each line which has the key
+   *      wanted there
+   *
+   * Input:
+   *      @param lineKeys  - The key of each line
+   *      @param groupKeys - The key of each group of 3 lines
+   *      @param targets   - The keys each place must have (findTargets())
+   *      @param orders    - Where to put the matching orderings, 9 lines each
+   *      @param place     - The place to fill next
+   *      @param used      - The lines already placed, bit i for line i
+   *      @param found     - The number of orderings found so far
+   *
+   * Output:
+   *      @return - The number of orderings found, stopping once there are
+   *                more than MAX_CANDIDATES
+  */
+  private int findOrders(long[] lineKeys, long[] groupKeys, long[] targets,
+                         int[] orders, int place, int used, int found) {
+    if (place == 9) {
+      System.arraycopy(order, 0, orders, found * 9, 9);
+      return found + 1;
+    }
+
+    // A new group can be any unused group, otherwise the line must be in
+    // the same group as the line before it
+    int firstGroup = place % 3 == 0 ? 0 : order[place - 1] / 3;
+    int lastGroup = place % 3 == 0 ? 2 : firstGroup;
+
+    for (int group = firstGroup; group <= lastGroup; group++) {
+      if (place % 3 == 0 && ((used >> (group * 3)) & 7) != 0) continue;
+      if (groupKeys[group] != targets[9 + place]) continue;
+
+      for (int line = group * 3; line < group * 3 + 3; line++) {
+        if ((used & (1 << line)) != 0 || lineKeys[line] != targets[place]) continue;
+
+        order[place] = line;
+        found = findOrders(lineKeys, groupKeys, targets, orders, place + 1, used | (1 << line), found);
+        if (found > MAX_CANDIDATES) return found;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * tryOrdering(view, rowStart, colStart)
+   *
+   * Purpose:
+   *      Relabels a view with its rows and cols in the given orders, and
+   *      keeps it if it is smaller than the smallest form found so far
+   *
+   * Input:
+   *      @param view     - 0 for the grid, 1 for the grid transposed
+   *      @param rowStart - Where the ordering of the rows is in rowOrders
+   *      @param colStart - Where the ordering of the cols is in colOrders
+   *
+   * Output:
+   *      None
+  */
+  private void tryOrdering(int view, int rowStart, int colStart) {
+    int[] cells = sources[view];
+
+    Arrays.fill(label, 0);
+    int nextLabel = 0;
+
+    // Once smaller, the rest is written straight into best
+    boolean smaller = !haveBest;
+
+    for (int row = 0; row < 9; row++) {
+      int sourceRow = rowOrders[rowStart + row] * 9;
+      for (int col = 0; col < 9; col++) {
+        int val = cells[sourceRow + colOrders[colStart + col]];
+        if (val != 0 && label[val] == 0) label[val] = ++nextLabel;
+
+        int canonicalVal = label[val];
+        int cell = row * 9 + col;
+        if (!smaller) {
+          if (canonicalVal > best[cell]) return;
+          if (canonicalVal < best[cell]) smaller = true;
+        }
+        if (smaller) best[cell] = canonicalVal;
+      }
+    }
+    if (!smaller) return;
+
+    haveBest = true;
+    bestTranspose = view;
+    System.arraycopy(rowOrders, rowStart, bestRowMap, 0, 9);
+    System.arraycopy(colOrders, colStart, bestColMap, 0, 9);
+    System.arraycopy(label, 0, bestLabel, 0, 10);
+  }
+
+  /**
+   * cellWeight(val)
+   *
+   * Purpose:
+   *      Gives a cell a weight which does not change with relabeling
+   *
+   * Input:
+   *      @param val - The cell's value, 0 for an empty cell
+   *
+   * Output:
+   *      @return - 0 for an empty cell, otherwise how often val is used
+  */
+  private int cellWeight(int val) {
+    return val == 0 ? 0 : valueCounts[val];
+  }
+
+  /**
+   * compareTargets(a, b)
+   *
+   * Purpose:
+   *      Compares two orders of keys place by place
+   *
+   * Input:
+   *      @param a - The first keys
+   *      @param b - The second keys
+   *
+   * Output:
+   *      @return - Less than 0, 0 or more than 0 as a is before, equal to
+   *                or after b
+  */
+  private static int compareTargets(long[] a, long[] b) {
+    for (int i = 0; i < a.length; i++) {
+      int rt = Long.compare(a[i], b[i]);
+      if (rt != 0) return rt;
+    }
+    return 0;
+  }
+
+  /**
+   * sortByKey(items, start, length, keys)
+   *
+   * Purpose:
+   *      Sorts a few items in place by their keys
+   *
+   * Input:
+   *      @param items  - The items, indexes into keys
+   *      @param start  - The first item to sort
+   *      @param length - The number of items to sort
+   *      @param keys   - The key of each item
+   *
+   * Output:
+   *      None
+  */
+  private static void sortByKey(int[] items, int start, int length, long[] keys) {
+    for (int i = start + 1; i < start + length; i++) {
+      int item = items[i];
+      int j = i - 1;
+      while (j >= start && keys[items[j]] > keys[item]) {
+        items[j + 1] = items[j];
+        j--;
+      }
+      items[j + 1] = item;
+    }
+  }
+
+  /**
+   * mix(x)
+   *
+   * Purpose:
+   *      Scrambles the bits of a key, so sums of keys rarely collide
+   *
+   * Input:
+   *      @param x - The value to scramble
+   *
+   * Output:
+   *      @return - The scrambled value
+  */
+  private static long mix(long x) {
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * ChunkPipeline.java
+ *
+ * Purpose: Works on chunks of a stream in parallel and hands the results
+ *          on in order
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ChunkPipeline
+ *
+ * Purpose:
+ *      The batch tools all read (or make) their input in chunks, work on
+ *      each chunk as one task on a ForkJoinPool, and write the results in
+ *      input order. Each task is submitted here, and every finished chunk
+ *      is given to the sink on the submitting thread, in the order the
+ *      tasks were submitted.
+ *
+ *      Only a few chunks per thread are held at a time: submitting more
+ *      first waits for the oldest one and gives it to the sink. Closing
+ *      the pipeline stops the pool, so it should be used in a try with
+ *      resources.
+ */
+final class ChunkPipeline<C> implements Closeable {
+
+  // The size of the tools' read and write buffers
+  static final int BUFFER_SIZE = 1 << 16;
+
+  // The number of chunks each thread may have waiting for the sink
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  // Takes the finished chunks, oldest first
+  interface Sink<C> {
+    void accept(C chunk) throws IOException;
+  }
+
+  private final ForkJoinPool pool;
+  private final int maxPending;
+  private final Sink<C> sink;
+
+  // What the tasks do, for error messages, such as "solving"
+  private final String work;
+
+  // The chunks not given to the sink yet, oldest first
+  private final Deque<Future<C>> pending = new ArrayDeque<Future<C>>();
+
+  ChunkPipeline(int threads, String work, Sink<C> sink) {
+    if (threads < 1)
+      throw new IllegalArgumentException("At least one thread is needed");
+
+    this.pool = new ForkJoinPool(threads);
+    this.maxPending = threads * CHUNKS_PER_THREAD;
+    this.work = work;
+    this.sink = sink;
+  }
+
+  /**
+   * submit(task)
+   *
+   * Purpose:
+   *      Starts work on a chunk. If too many chunks are waiting, the oldest
+   *      is waited for and given to the sink first
+   *
+   * Input:
+   *      @param task - Works on the chunk and returns it
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      Throws IOException if a chunk failed or the sink did
+  */
+  void submit(Callable<C> task) throws IOException {
+    if (pending.size() >= maxPending) {
+      sink.accept(await(pending.removeFirst()));
+    }
+    pending.addLast(pool.submit(task));
+  }
+
+  /**
+   * finish()
+   *
+   * Purpose:
+   *      Waits for every submitted chunk and gives them to the sink
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      Throws IOException if a chunk failed or the sink did
+  */
+  void finish() throws IOException {
+    while (!pending.isEmpty()) {
+      sink.accept(await(pending.removeFirst()));
+    }
+  }
+
+  /**
+   * close()
+   *
+   * Purpose:
+   *      Stops the pool, interrupting any chunks still being worked on
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * await(future)
+   *
+   * Purpose:
+   *      Waits for a chunk's task
+   *
+   * Input:
+   *      @param future - The chunk's task
+   *
+   * Output:
+   *      @return - The finished chunk
+   *
+   * Effects:
+   *      Throws IOException if the task failed
+  */
+  private C await(Future<C> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while " + work);
+    } catch (ExecutionException e) {
+      throw new IOException(Character.toUpperCase(work.charAt(0)) + work.substring(1)
+          + " a chunk failed", e.getCause());
+    }
+  }
+
+  /**
+   * newReader(in) / newWriter(out)
+   *
+   * Purpose:
+   *      Buffers a stream of ASCII puzzle lines
+   *
+   * Input:
+   *      @param in / out - The stream
+   *
+   * Output:
+   *      @return - The buffered reader or writer
+  */
+  static BufferedReader newReader(InputStream in) {
+    return new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII), BUFFER_SIZE);
+  }
+
+  static Writer newWriter(OutputStream out) {
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), BUFFER_SIZE);
+  }
+
+  /**
+   * readLines(reader, lines)
+   *
+   * Purpose:
+   *      Reads up to lines.length lines, a chunk's worth
+   *
+   * Input:
+   *      @param reader - The lines
+   *      @param lines  - The array to read into
+   *
+   * Output:
+   *      @return - The number of lines read, 0 at the end of the input
+  */
+  static int readLines(BufferedReader reader, String[] lines) throws IOException {
+    int count = 0;
+    String text;
+    while (count < lines.length && (text = reader.readLine()) != null) {
+      lines[count++] = text;
+    }
+    return count;
+  }
+}
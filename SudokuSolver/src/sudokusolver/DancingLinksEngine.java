@@ -0,0 +1,412 @@
+/*
+ * DancingLinksEngine.java
+ *
+ * Purpose: Solves sudoku puzzles as an exact cover problem with Knuth's
+ *          Algorithm X, using Dancing Links to undo choices cheaply
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - solveInto() and reused given checks, no allocation
+ *  Oct 18, 2026 - Counts search nodes and backtracks for SolverMetrics
+ */
+package sudokusolver;
+
+import java.util.Arrays;
+
+/**
+ * DancingLinksEngine
+ *
+ * Purpose:
+ *      The exact cover matrix has a row for every (row, col, value) choice
+ *      and 324 columns, one for each rule a solution must satisfy once:
+ *          0 - 80    cell (row, col) has a value
+ *          81 - 161  row has value
+ *          162 - 242 col has value
+ *          243 - 323 box has value
+ *      Each choice row has exactly one node in each of the four groups.
+ *
+ *      The links are kept in int arrays which are built once, every solve
+ *      covers the givens and uncovers them again at the end, so the
+ *      matrix is back to its starting state for the next solve.
+ */
+public class DancingLinksEngine implements SolverEngine {
+
+  private static final int COLUMNS = 324;
+  private static final int CHOICES = 729;
+
+  // Index of the root header, column headers are 1 to COLUMNS
+  private static final int ROOT = 0;
+
+  // Node links
+  // Format: left[node], right[node], up[node], down[node]
+  private final int[] left;
+  private final int[] right;
+  private final int[] up;
+  private final int[] down;
+
+  // The column header of each node
+  private final int[] column;
+
+  // The choice each node belongs to (row * 81 + col * 9 + val - 1)
+  private final int[] choice;
+
+  // The number of nodes left in each column
+  private final int[] size;
+
+  // The first node of each choice's four nodes
+  private final int[] choiceNode;
+
+  // The choices made so far, by search depth
+  private final int[] solution;
+
+  // The search nodes, choices in columns with more than one, and wrong
+  // choices of the running solve
+  private long nodeCount;
+  private long guessCount;
+  private long backtrackCount;
+
+  // Where each solve's counts and time are added, or null
+  private SolverMetrics metrics;
+
+  // The given values seen so far in each row, col and box while checking
+  // the givens (see CandidateMask)
+  private final int[] givenRows = new int[9];
+  private final int[] givenCols = new int[9];
+  private final int[] givenBoxs = new int[9];
+
+  public DancingLinksEngine() {
+    int nodes = 1 + COLUMNS + CHOICES * 4;
+
+    left = new int[nodes];
+    right = new int[nodes];
+    up = new int[nodes];
+    down = new int[nodes];
+    column = new int[nodes];
+    choice = new int[nodes];
+    size = new int[COLUMNS + 1];
+    choiceNode = new int[CHOICES];
+    solution = new int[81];
+
+    // Link the root and column headers in a circle
+    for (int i = 0; i <= COLUMNS; i++) {
+      left[i] = i == 0 ? COLUMNS : i - 1;
+      right[i] = i == COLUMNS ? 0 : i + 1;
+      up[i] = i;
+      down[i] = i;
+      column[i] = i;
+    }
+
+    // Add the four nodes of each choice
+    int node = COLUMNS + 1;
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        int box = (row/3)*3 + (col/3);
+        for (int val = 1; val <= 9; val++) {
+          int c = row * 81 + col * 9 + val - 1;
+          choiceNode[c] = node;
+
+          int[] headers = {
+            1 + row * 9 + col,
+            1 + 81 + row * 9 + val - 1,
+            1 + 162 + col * 9 + val - 1,
+            1 + 243 + box * 9 + val - 1
+          };
+
+          for (int i = 0; i < 4; i++) {
+            int header = headers[i];
+
+            // Link into the choice's circle
+            left[node] = i == 0 ? node + 3 : node - 1;
+            right[node] = i == 3 ? node - 3 : node + 1;
+
+            // Add to the bottom of the column
+            column[node] = header;
+            choice[node] = c;
+            up[node] = up[header];
+            down[node] = header;
+            down[up[header]] = node;
+            up[header] = node;
+            size[header]++;
+
+            node++;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public SolveResult solve(int[] grid) {
+    int[] result = new int[81];
+    SolveResult.Status status = solveInto(grid, result);
+    return new SolveResult(status, result);
+  }
+
+  /**
+   * solveInto(grid, result)
+   *
+   * Purpose:
+   *      Like solve(grid), but writes the grid after solving into the
+   *      caller's array. Nothing is allocated
+   *
+   * Input:
+   *      @param grid   - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param result - Where to write the grid after solving, may be
+   *                      grid itself
+   *
+   * Output:
+   *      @return - SOLVED, or INVALID with the givens in result
+  */
+  @Override
+  public SolveResult.Status solveInto(int[] grid, int[] result) {
+    if (grid.length != 81 || result.length != 81)
+      throw new IllegalArgumentException("A grid must have 81 cells");
+
+    if (metrics == null) return solveGrid(grid, result);
+
+    long start = System.nanoTime();
+    SolveResult.Status status = solveGrid(grid, result);
+    metrics.addSolve(status, System.nanoTime() - start, nodeCount, guessCount, backtrackCount);
+    return status;
+  }
+
+  /**
+   * setMetrics(metrics)
+   *
+   * Purpose:
+   *      Sets where each solve's search nodes, guesses, backtracks and
+   *      time are added. A guess is a choice in a column with more than
+   *      one, and a backtrack any choice which turned out wrong
+   *
+   * Input:
+   *      @param metrics - The metrics, OR null to not measure anything
+   *
+   * Output:
+   *      None
+  */
+  @Override
+  public void setMetrics(SolverMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * solveGrid(grid, result)
+   *
+   * Purpose:
+   *      The work of solveInto(grid, result), once the sizes are checked
+   *
+   * Input:
+   *      @param grid   - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param result - Where to write the grid after solving
+   *
+   * Output:
+   *      @return - SOLVED, or INVALID with the givens in result
+  */
+  private SolveResult.Status solveGrid(int[] grid, int[] result) {
+    nodeCount = 0;
+    guessCount = 0;
+    backtrackCount = 0;
+
+    // Check the givens before covering anything, a repeated value
+    // would try to cover a column twice
+    if (!checkGivens(grid)) {
+      System.arraycopy(grid, 0, result, 0, 81);
+      return SolveResult.Status.INVALID;
+    }
+
+    // Cover the columns of every given value
+    int givens = 0;
+    for (int cell = 0; cell < 81; cell++) {
+      if (grid[cell] == 0) continue;
+
+      int node = choiceNode[cell * 9 + grid[cell] - 1];
+      selectChoice(node);
+      solution[givens++] = node;
+    }
+
+    boolean found = search(givens);
+
+    System.arraycopy(grid, 0, result, 0, 81);
+    if (found) {
+      for (int i = givens; i < 81; i++) {
+        int c = choice[solution[i]];
+        result[c / 9] = c % 9 + 1;
+      }
+    }
+
+    // Put the matrix back the way it was
+    for (int i = givens - 1; i >= 0; i--) {
+      unselectChoice(solution[i]);
+    }
+
+    return found ? SolveResult.Status.SOLVED : SolveResult.Status.INVALID;
+  }
+
+  /**
+   * search(depth)
+   *
+   * Purpose:
+   *      Algorithm X. Picks the column with the fewest nodes and tries
+   *      each choice in it. Leaves the matrix as it found it
+   *
+   * Input:
+   *      @param depth - The number of choices made so far
+   *
+   * Output:
+   *      @return - true if a solution was found (stored in solution)
+  */
+  private boolean search(int depth) {
+    nodeCount++;
+    if (right[ROOT] == ROOT) return true;
+
+    // Pick the column with the fewest nodes
+    int best = right[ROOT];
+    for (int c = right[best]; c != ROOT; c = right[c]) {
+      if (size[c] < size[best]) {
+        best = c;
+        if (size[best] <= 1) break;
+      }
+    }
+    if (size[best] == 0) return false;
+
+    cover(best);
+
+    boolean guessing = size[best] > 1;
+    boolean found = false;
+    for (int node = down[best]; node != best && !found; node = down[node]) {
+      solution[depth] = node;
+      if (guessing) guessCount++;
+
+      for (int j = right[node]; j != node; j = right[j]) cover(column[j]);
+
+      found = search(depth + 1);
+      if (!found) backtrackCount++;
+
+      for (int j = left[node]; j != node; j = left[j]) uncover(column[j]);
+    }
+
+    uncover(best);
+    return found;
+  }
+
+  /**
+   * selectChoice(node) / unselectChoice(node)
+   *
+   * Purpose:
+   *      Covers or uncovers all four columns of the choice a node is in
+   *
+   * Input:
+   *      @param node - Any node of the choice
+   *
+   * Output:
+   *      None
+  */
+  private void selectChoice(int node) {
+    cover(column[node]);
+    for (int j = right[node]; j != node; j = right[j]) cover(column[j]);
+  }
+
+  private void unselectChoice(int node) {
+    for (int j = left[node]; j != node; j = left[j]) uncover(column[j]);
+    uncover(column[node]);
+  }
+
+  /**
+   * cover(header)
+   *
+   * Purpose:
+   *      Removes a column, and every choice which has a node in it,
+   *      from the matrix
+   *
+   * Input:
+   *      @param header - The column's header node
+   *
+   * Output:
+   *      None
+  */
+  private void cover(int header) {
+    right[left[header]] = right[header];
+    left[right[header]] = left[header];
+
+    for (int i = down[header]; i != header; i = down[i]) {
+      for (int j = right[i]; j != i; j = right[j]) {
+        down[up[j]] = down[j];
+        up[down[j]] = up[j];
+        size[column[j]]--;
+      }
+    }
+  }
+
+  /**
+   * uncover(header)
+   *
+   * Purpose:
+   *      Puts back a column removed by cover(), in the reverse order
+   *
+   * Input:
+   *      @param header - The column's header node
+   *
+   * Output:
+   *      None
+  */
+  private void uncover(int header) {
+    for (int i = up[header]; i != header; i = up[i]) {
+      for (int j = left[i]; j != i; j = left[j]) {
+        size[column[j]]++;
+        down[up[j]] = j;
+        up[down[j]] = j;
+      }
+    }
+
+    right[left[header]] = header;
+    left[right[header]] = header;
+  }
+
+  /**
+   * checkGivens(grid)
+   *
+   * Purpose:
+   *      Checks that the given values are 0-9 and don't repeat in a row,
+   *      column or box
+   *
+   * Input:
+   *      @param grid - 81 values in row order
+   *
+   * Output:
+   *      @return - false if a given value repeats
+   *
+   * Effects:
+   *      Throws NumberFormatException if a value is not 0-9
+  */
+  private boolean checkGivens(int[] grid) {
+    int[] rowUsed = givenRows;
+    int[] colUsed = givenCols;
+    int[] boxUsed = givenBoxs;
+    Arrays.fill(rowUsed, 0);
+    Arrays.fill(colUsed, 0);
+    Arrays.fill(boxUsed, 0);
+
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        int val = grid[row * 9 + col];
+
+        if (val == 0) continue;
+
+        if (val > 9 || val < 0)
+          throw new NumberFormatException();
+
+        int bit = CandidateMask.bit(val);
+        int box = (row/3)*3 + (col/3);
+        if (((rowUsed[row] | colUsed[col] | boxUsed[box]) & bit) != 0)
+          return false;
+
+        rowUsed[row] |= bit;
+        colUsed[col] |= bit;
+        boxUsed[box] |= bit;
+      }
+    }
+    return true;
+  }
+}
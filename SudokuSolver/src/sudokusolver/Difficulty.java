@@ -0,0 +1,29 @@
+/*
+ * Difficulty.java
+ *
+ * Purpose: How hard a puzzle is, by the hardest thing needed to solve it
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+public enum Difficulty {
+
+  // Naked and hidden singles are enough
+  EASY,
+
+  // Needs intersections (pointing pairs, box/line reduction)
+  MEDIUM,
+
+  // Needs naked or hidden pairs, triples or quads
+  HARD,
+
+  // Needs X-Wings, Swordfish or Jellyfish
+  EXPERT,
+
+  // The strategies get stuck, so it needs guessing
+  EXTREME
+}
@@ -0,0 +1,41 @@
+/*
+ * EngineType.java
+ *
+ * Purpose: Lets a caller choose which engine solves a puzzle
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+public enum EngineType {
+
+  // Row, column and box logic from SudokuPuzzle, guessing when stuck
+  PROPAGATION,
+
+  // Knuth's Algorithm X on the exact cover matrix using Dancing Links
+  DANCING_LINKS;
+
+  /**
+   * newEngine()
+   *
+   * Purpose:
+   *      Makes a new engine of this type
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - A new engine, to be used by one thread at a time
+  */
+  public SolverEngine newEngine() {
+    switch (this) {
+      case DANCING_LINKS:
+        return new DancingLinksEngine();
+      default:
+        return new PropagationEngine();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Geometry.java
+ *
+ * Purpose: Lookup tables for the cells, units and peers of a grid
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+/**
+ * Geometry
+ *
+ * Purpose:
+ *      Everything about where cells are which the solving loops would
+ *      otherwise work out with divisions, made once per box size and shared
+ *      by every puzzle of that size. Cells are numbered row * size + col.
+ *
+ *      The tables are never changed after they are made, so they are safe
+ *      to share between threads.
+ */
+final class Geometry {
+
+  // The geometry of each box size, from SudokuPuzzle.MIN_BOX_SIZE up
+  private static final Geometry[] BY_BOX_SIZE = new Geometry[SudokuPuzzle.MAX_BOX_SIZE + 1];
+
+  static {
+    for (int n = SudokuPuzzle.MIN_BOX_SIZE; n <= SudokuPuzzle.MAX_BOX_SIZE; n++) {
+      BY_BOX_SIZE[n] = new Geometry(n);
+    }
+  }
+
+  // The width of a box in cells
+  final int boxSize;
+
+  // The number of cells in a row, col or box, and in the grid
+  final int size;
+  final int cellCount;
+
+  // The row, col and box of every cell
+  // Format: rowOf[cell], colOf[cell], boxOf[cell]
+  final int[] rowOf;
+  final int[] colOf;
+  final int[] boxOf;
+
+  // The cells of every row, col and box
+  // Format: units[unit][i], units 0-8 are rows, 9-17 cols and 18-26 boxes
+  final int[][] units;
+
+  // The other cells sharing a row, col or box with each cell, 20 in a 9x9
+  // grid. Row and col peers come first, interleaved, then the rest of the
+  // box
+  // Format: peers[cell][i]
+  final int[][] peers;
+
+  private Geometry(int boxSize) {
+    this.boxSize = boxSize;
+    this.size = boxSize * boxSize;
+    this.cellCount = size * size;
+
+    rowOf = new int[cellCount];
+    colOf = new int[cellCount];
+    boxOf = new int[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      int row = cell / size;
+      int col = cell % size;
+      rowOf[cell] = row;
+      colOf[cell] = col;
+      boxOf[cell] = (row / boxSize) * boxSize + col / boxSize;
+    }
+
+    units = new int[3 * size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        units[i][j] = i * size + j;
+        units[size + i][j] = j * size + i;
+        units[2 * size + i][j] = ((i/boxSize)*boxSize + j/boxSize) * size
+                                 + (i%boxSize)*boxSize + j%boxSize;
+      }
+    }
+
+    int peerCount = 2 * (size - 1) + (boxSize - 1) * (boxSize - 1);
+    peers = new int[cellCount][peerCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      int row = rowOf[cell];
+      int col = colOf[cell];
+      int n = 0;
+
+      for (int i = 0; i < size; i++) {
+        if (i != col) peers[cell][n++] = row * size + i;
+        if (i != row) peers[cell][n++] = i * size + col;
+      }
+      for (int other : units[2 * size + boxOf[cell]]) {
+        if (rowOf[other] != row && colOf[other] != col) peers[cell][n++] = other;
+      }
+    }
+  }
+
+  /**
+   * of(boxSize)
+   *
+   * Purpose:
+   *      Gives the shared geometry of a box size
+   *
+   * Input:
+   *      @param boxSize - The width of a box in cells, 3 for 9x9
+   *
+   * Output:
+   *      @return - The geometry
+   *
+   * Effects:
+   *      Throws IllegalArgumentException if there are no puzzles of that
+   *      box size
+  */
+  static Geometry of(int boxSize) {
+    if (boxSize < SudokuPuzzle.MIN_BOX_SIZE || boxSize > SudokuPuzzle.MAX_BOX_SIZE)
+      throw new IllegalArgumentException("The box size must be " + SudokuPuzzle.MIN_BOX_SIZE
+          + " - " + SudokuPuzzle.MAX_BOX_SIZE);
+
+    return BY_BOX_SIZE[boxSize];
+  }
+}
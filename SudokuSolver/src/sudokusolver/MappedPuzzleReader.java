@@ -0,0 +1,222 @@
+/*
+ * MappedPuzzleReader.java
+ *
+ * Purpose: Reads fixed width puzzle records straight out of a memory
+ *          mapped file
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Reads 41 byte puzzle records too
+ *  Oct 18, 2026 - Segments may be read by many threads, segments()
+ *                 replaces split()
+ *  Oct 18, 2026 - A short record at the end of the file is counted, and
+ *                 reads as a bad record instead of being dropped
+ */
+package sudokusolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedPuzzleReader
+ *
+ * Purpose:
+ *      A puzzle file where every puzzle is an 81 character line followed
+ *      by '\n' (82 bytes per record) can be read without splitting it into
+ *      lines. The file is mapped in segments of whole records, and a
+ *      record is decoded from the mapped bytes directly into a grid.
+ *
+ *      Records are read by index without moving the mapped buffer's
+ *      position, so any number of threads may read from one segment at
+ *      once, such as each reading its own range of records.
+ *
+ *      A binary file of puzzle records (see BinaryPuzzleFormat) is read
+ *      the same way, 41 bytes per record.
+ *
+ *      If the file ends part way through a record, that short record is
+ *      still counted, and read() reports it as not a puzzle. The last
+ *      puzzle line may leave out its '\n' though, and reads as a puzzle.
+ */
+public class MappedPuzzleReader implements Closeable {
+
+  // The number of bytes in a record, the puzzle line and '\n'
+  public static final int RECORD_LENGTH = PuzzleFormat.LINE_LENGTH + 1;
+
+  private final FileChannel channel;
+  private final boolean binary;
+  private final int recordLength;
+  private final long puzzleCount;
+
+  // The most records mapped in one segment, a mapping is limited to 2GB
+  private final int maxSegmentRecords;
+
+  public MappedPuzzleReader(Path path) throws IOException {
+    this(path, false);
+  }
+
+  public MappedPuzzleReader(Path path, boolean binary) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.binary = binary;
+    this.recordLength = binary ? BinaryPuzzleFormat.RECORD_LENGTH : RECORD_LENGTH;
+    this.maxSegmentRecords = Integer.MAX_VALUE / recordLength;
+
+    // A short last record is counted too, so it is reported when read
+    puzzleCount = (channel.size() + recordLength - 1) / recordLength;
+  }
+
+  /**
+   * getPuzzleCount()
+   *
+   * Purpose:
+   *      Returns the number of records in the file
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of records
+  */
+  public long getPuzzleCount() {
+    return puzzleCount;
+  }
+
+  /**
+   * segments()
+   *
+   * Purpose:
+   *      Maps the whole file in as few segments as it fits in, one unless
+   *      the file is over 2GB
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The segments in file order
+  */
+  public Segment[] segments() throws IOException {
+    int segments = (int) ((puzzleCount + maxSegmentRecords - 1) / maxSegmentRecords);
+    Segment[] rt = new Segment[segments];
+
+    for (int i = 0; i < segments; i++) {
+      long first = (long) i * maxSegmentRecords;
+      rt[i] = segment(first, (int) Math.min(maxSegmentRecords, puzzleCount - first));
+    }
+    return rt;
+  }
+
+  /**
+   * segment(first, count)
+   *
+   * Purpose:
+   *      Maps a range of records
+   *
+   * Input:
+   *      @param first - The index of the first record
+   *      @param count - The number of records
+   *
+   * Output:
+   *      @return - The mapped segment
+  */
+  public Segment segment(long first, int count) throws IOException {
+    if (first < 0 || count < 0 || first + count > puzzleCount || count > maxSegmentRecords)
+      throw new IndexOutOfBoundsException();
+
+    long start = first * recordLength;
+    long length = Math.min((long) count * recordLength, channel.size() - start);
+
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    return new Segment(buffer, first, count, binary);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Segment
+   *
+   * Purpose:
+   *      A mapped range of whole records, safe to read from many threads
+   */
+  public static class Segment {
+    private final MappedByteBuffer buffer;
+    private final long first;
+    private final int count;
+    private final boolean binary;
+
+    Segment(MappedByteBuffer buffer, long first, int count, boolean binary) {
+      this.buffer = buffer;
+      this.first = first;
+      this.count = count;
+      this.binary = binary;
+    }
+
+    /**
+     * getFirstIndex()
+     *
+     * Purpose:
+     *      Returns the index in the file of the segment's first record
+     *
+     * Input:
+     *      None
+     *
+     * Output:
+     *      @return - The record index
+    */
+    public long getFirstIndex() {
+      return first;
+    }
+
+    /**
+     * getPuzzleCount()
+     *
+     * Purpose:
+     *      Returns the number of records in the segment
+     *
+     * Input:
+     *      None
+     *
+     * Output:
+     *      @return - The number of records
+    */
+    public int getPuzzleCount() {
+      return count;
+    }
+
+    /**
+     * read(index, grid)
+     *
+     * Purpose:
+     *      Decodes one record of the segment into a grid
+     *
+     * Input:
+     *      @param index - The record's index within the segment
+     *      @param grid  - The 81 value grid to fill in
+     *
+     * Output:
+     *      @return - false if the record is not a puzzle, or is cut short
+     *                by the end of the file (grid is then partial)
+    */
+    public boolean read(int index, int[] grid) {
+      if (index < 0 || index >= count)
+        throw new IndexOutOfBoundsException();
+
+      if (binary)
+        return BinaryPuzzleFormat.decode(buffer, index * BinaryPuzzleFormat.RECORD_LENGTH, grid);
+
+      int offset = index * RECORD_LENGTH;
+      if (!PuzzleFormat.decode(buffer, offset, grid)) return false;
+
+      // Every record but the file's last must end in '\n'
+      int end = offset + PuzzleFormat.LINE_LENGTH;
+      return end == buffer.limit() || buffer.get(end) == '\n';
+    }
+  }
+}
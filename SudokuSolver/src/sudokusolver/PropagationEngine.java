@@ -0,0 +1,765 @@
+/*
+ * PropagationEngine.java
+ *
+ * Purpose: Solves sudoku puzzles with the SudokuPuzzle row, column and box
+ *          logic without needing a window
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created from SudokuSolver.attemptSolve()
+ *  Oct 18, 2026 - Guesses on the fewest possibilities cell when stuck
+ *  Oct 18, 2026 - Naked and hidden subsets before guessing
+ *  Oct 18, 2026 - Intersection removal before guessing
+ *  Oct 18, 2026 - Fish before guessing
+ *  Oct 18, 2026 - countSolutions() added
+ *  Oct 18, 2026 - Counts the strategies and guesses used, for grading
+ *  Oct 18, 2026 - Reports progress and stops when interrupted
+ *  Oct 18, 2026 - solve() with time and node limits and a cancel token
+ *  Oct 18, 2026 - Solves 16x16 and 25x25 grids with a bigger box size
+ *  Oct 18, 2026 - solveInto() writes into the caller's grid, no allocation
+ *  Oct 18, 2026 - Counts and times each stage for SolverMetrics
+ *  Oct 18, 2026 - Can guess as soon as singles are stuck, and always does
+ *                 in countSolutions()
+ */
+package sudokusolver;
+
+import java.util.function.IntConsumer;
+
+public class PropagationEngine implements SolverEngine {
+
+  // Results of propagate()
+  private static final int CONTRADICTION = -1;
+  private static final int STALLED = 0;
+  private static final int FILLED = 1;
+  private static final int STOPPED = -2;
+
+  // The box size of the grids solved, 3 for 9x9
+  private final int boxSize;
+
+  // The number of cells in a row, col or box, and in the whole grid
+  private final int size;
+  private final int cellCount;
+
+  // The puzzle the givens are put in, reused for every solve
+  private final SudokuPuzzle puzzle;
+
+  // Puzzles to make guesses on, one per search depth
+  // Each guess fills at least one cell, so the depth never passes the
+  // number of cells
+  private final SudokuPuzzle[] guesses;
+
+  // How much each strategy did in the last solve, indexed by ordinal()
+  // Format: The number of cells filled (singles) or which lost possible
+  //         values (everything else)
+  private final int[] strategyCounts = new int[Strategy.ALL.length];
+
+  // The number of guesses made in the last solve, and how many of them
+  // turned out wrong
+  private int guessCount;
+  private int backtrackCount;
+
+  // Where each solve's counts and times are added, or null to not
+  // measure anything
+  private SolverMetrics metrics;
+
+  // What each stage did in the running solve, indexed by ordinal()
+  // Only kept while there are metrics
+  private final long[] stageCalls = new long[SolveStage.ALL.length];
+  private final long[] stageProgress = new long[SolveStage.ALL.length];
+  private final long[] stageNanos = new long[SolveStage.ALL.length];
+
+  // The System.nanoTime() the running stage started at
+  private long stageStart;
+
+  // How many guesses are made between progress reports
+  private static final int PROGRESS_GUESSES = 1024;
+
+  // Told the number of guesses so far while solving, or null
+  private IntConsumer progressListener;
+
+  // The number of propagation passes between checks of the limits
+  private static final int LIMIT_CHECK_PASSES = 16;
+
+  // The limits of the running solve
+  private SolveLimits limits = SolveLimits.NONE;
+
+  // The System.nanoTime() the running solve must stop at, if it has a
+  // time limit
+  private long deadline;
+
+  // The search nodes and propagation passes of the running solve
+  private long nodeCount;
+  private int passCount;
+
+  // Whether to guess as soon as singles are stuck, skipping
+  // intersections, subsets and fish
+  private boolean singlesOnly;
+
+  // Why the running solve stopped early, or null while it may go on
+  // When set the search unwinds
+  private SolveResult.Status stopStatus;
+
+  public PropagationEngine() {
+    this(3);
+  }
+
+  public PropagationEngine(int boxSize) {
+    this.boxSize = boxSize;
+    this.puzzle = new SudokuPuzzle(boxSize);
+    this.size = puzzle.getSize();
+    this.cellCount = puzzle.getCellCount();
+    this.guesses = new SudokuPuzzle[cellCount + 1];
+  }
+
+  /**
+   * getBoxSize()
+   *
+   * Purpose:
+   *      Returns the box size of the grids this engine solves
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The box size, 3 for 9x9 grids
+  */
+  public int getBoxSize() {
+    return boxSize;
+  }
+
+  /**
+   * solve(grid)
+   *
+   * Purpose:
+   *      Attempts to solve the given puzzle. Fills what it can with the
+   *      row, column and box logic, then guesses when that gets stuck
+   *
+   * Input:
+   *      @param grid - 81 values in row order (0 for an empty cell, or 1-9)
+   *                    For a bigger box size, size * size values
+   *
+   * Output:
+   *      @return - The status and the grid after solving. The given grid
+   *                is not modified
+  */
+  @Override
+  public SolveResult solve(int[] grid) {
+    return solve(grid, SolveLimits.NONE);
+  }
+
+  /**
+   * solve(grid, limits)
+   *
+   * Purpose:
+   *      Like solve(grid), but gives up once the limits are reached. The
+   *      limits are checked at every search node and every so many
+   *      propagation passes
+   *
+   * Input:
+   *      @param grid   - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param limits - The time and nodes the solve may use
+   *
+   * Output:
+   *      @return - The status and the grid after solving. If the solve was
+   *                stopped, TIMED_OUT or CANCELLED with the cells found
+   *                before any guess
+  */
+  public SolveResult solve(int[] grid, SolveLimits limits) {
+    int[] solution = new int[cellCount];
+    SolveResult.Status status = solveInto(grid, solution, limits);
+    return new SolveResult(status, solution);
+  }
+
+  /**
+   * solveInto(grid, solution)
+   *
+   * Purpose:
+   *      Like solve(grid), but writes the grid after solving into the
+   *      caller's array. Once the engine has made its guess puzzles, this
+   *      allocates nothing, so one engine can solve any number of grids
+   *      without garbage
+   *
+   * Input:
+   *      @param grid     - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param solution - Where to write the grid after solving, may be
+   *                        grid itself
+   *
+   * Output:
+   *      @return - How far the engine got with the puzzle
+  */
+  @Override
+  public SolveResult.Status solveInto(int[] grid, int[] solution) {
+    return solveInto(grid, solution, SolveLimits.NONE);
+  }
+
+  /**
+   * solveInto(grid, solution, limits)
+   *
+   * Purpose:
+   *      Like solve(grid, limits), but writes the grid after solving into
+   *      the caller's array
+   *
+   * Input:
+   *      @param grid     - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param solution - Where to write the grid after solving
+   *      @param limits   - The time and nodes the solve may use
+   *
+   * Output:
+   *      @return - How far the engine got with the puzzle. If the solve
+   *                was stopped, solution has the cells found before any
+   *                guess, and if it was INVALID the givens
+  */
+  public SolveResult.Status solveInto(int[] grid, int[] solution, SolveLimits limits) {
+    if (grid.length != cellCount || solution.length != cellCount)
+      throw new IllegalArgumentException("A grid must have " + cellCount + " cells");
+
+    if (metrics == null) return solveGrid(grid, solution, limits);
+
+    long start = System.nanoTime();
+    SolveResult.Status status = solveGrid(grid, solution, limits);
+    long nanos = System.nanoTime() - start;
+
+    for (SolveStage stage : SolveStage.ALL) {
+      int i = stage.ordinal();
+      metrics.addStage(stage, stageCalls[i], stageProgress[i], stageNanos[i]);
+    }
+    metrics.addSolve(status, nanos, nodeCount, guessCount, backtrackCount);
+    return status;
+  }
+
+  /**
+   * solveGrid(grid, solution, limits)
+   *
+   * Purpose:
+   *      The work of solveInto(grid, solution, limits), once the sizes are
+   *      checked
+   *
+   * Input:
+   *      @param grid     - The values of the puzzle in row order
+   *      @param solution - Where to write the grid after solving
+   *      @param limits   - The time and nodes the solve may use
+   *
+   * Output:
+   *      @return - How far the engine got with the puzzle
+  */
+  private SolveResult.Status solveGrid(int[] grid, int[] solution, SolveLimits limits) {
+    resetCounts();
+    startLimits(limits);
+
+    // Fill the puzzle with the given values
+    if (!puzzle.load(grid)) {
+      System.arraycopy(grid, 0, solution, 0, cellCount);
+      return SolveResult.Status.INVALID;
+    }
+
+    SudokuPuzzle solved = search(puzzle, 0);
+    if (stopStatus != null) {
+      puzzle.copyCells(solution);
+      return stopStatus;
+    }
+    if (solved == null) {
+      System.arraycopy(grid, 0, solution, 0, cellCount);
+      return SolveResult.Status.INVALID;
+    }
+
+    solved.copyCells(solution);
+    return SolveResult.Status.SOLVED;
+  }
+
+  /**
+   * countSolutions(grid, limit)
+   *
+   * Purpose:
+   *      Counts the solutions of the given puzzle, stopping as soon as
+   *      limit of them have been found. A limit of 2 is enough to tell if
+   *      a puzzle has exactly one solution.
+   *
+   *      Every branch has to be searched to count, and the strategies past
+   *      singles cost more than the guesses they save doing that (about 3x
+   *      slower generating puzzles), so this only uses singles
+   *
+   * Input:
+   *      @param grid  - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param limit - The most solutions to count, at least 1
+   *
+   * Output:
+   *      @return - The number of solutions, no more than limit. If the
+   *                thread is interrupted, only the ones found so far
+  */
+  public int countSolutions(int[] grid, int limit) {
+    if (grid.length != cellCount)
+      throw new IllegalArgumentException("A grid must have " + cellCount + " cells");
+    if (limit < 1)
+      throw new IllegalArgumentException("The limit must be at least 1");
+
+    resetCounts();
+    startLimits(SolveLimits.NONE);
+
+    if (!puzzle.load(grid)) return 0;
+
+    boolean wasSinglesOnly = singlesOnly;
+    singlesOnly = true;
+    try {
+      return count(puzzle, 0, limit);
+    } finally {
+      singlesOnly = wasSinglesOnly;
+    }
+  }
+
+  /**
+   * search(puzzle, depth)
+   *
+   * Purpose:
+   *      Fills what it can in the puzzle, then guesses each possible value
+   *      of the cell with the fewest possibilities until one works out
+   *
+   * Input:
+   *      @param puzzle - The puzzle to solve (it is modified)
+   *      @param depth  - The number of guesses made to get to this puzzle
+   *
+   * Output:
+   *      @return - The solved puzzle OR null if the puzzle has no solution
+  */
+  private SudokuPuzzle search(SudokuPuzzle puzzle, int depth) {
+    if (!startNode()) return null;
+
+    int state = propagate(puzzle);
+    if (state == CONTRADICTION || state == STOPPED) return null;
+    if (state == FILLED) return puzzle;
+
+    // Guess in the cell with the fewest possible values
+    int cell = puzzle.findFewestPossibilitiesCell();
+    int row = cell / size;
+    int col = cell % size;
+    int vals = puzzle.getCellPossibilities(row, col);
+
+    if (guesses[depth + 1] == null) guesses[depth + 1] = new SudokuPuzzle(boxSize);
+    SudokuPuzzle guess = guesses[depth + 1];
+
+    // Try each possible value, smallest first
+    while (vals != 0) {
+      int val = CandidateMask.lowest(vals);
+      vals &= vals - 1;
+
+      if (!startGuess()) return null;
+
+      guess.copyFrom(puzzle);
+      guess.setCellValue(row, col, val);
+
+      SudokuPuzzle solved = search(guess, depth + 1);
+      if (solved != null) return solved;
+      if (stopStatus == null) backtrackCount++;
+    }
+    return null;
+  }
+
+  /**
+   * count(puzzle, depth, limit)
+   *
+   * Purpose:
+   *      Like search(), but keeps guessing after a solution is found until
+   *      every guess is tried or limit solutions have been found
+   *
+   * Input:
+   *      @param puzzle - The puzzle to solve (it is modified)
+   *      @param depth  - The number of guesses made to get to this puzzle
+   *      @param limit  - The most solutions to count
+   *
+   * Output:
+   *      @return - The number of solutions found, no more than limit
+  */
+  private int count(SudokuPuzzle puzzle, int depth, int limit) {
+    if (!startNode()) return 0;
+
+    int state = propagate(puzzle);
+    if (state == CONTRADICTION || state == STOPPED) return 0;
+    if (state == FILLED) return 1;
+
+    int cell = puzzle.findFewestPossibilitiesCell();
+    int row = cell / size;
+    int col = cell % size;
+    int vals = puzzle.getCellPossibilities(row, col);
+
+    if (guesses[depth + 1] == null) guesses[depth + 1] = new SudokuPuzzle(boxSize);
+    SudokuPuzzle guess = guesses[depth + 1];
+
+    int rt = 0;
+    while (vals != 0 && rt < limit) {
+      int val = CandidateMask.lowest(vals);
+      vals &= vals - 1;
+
+      if (!startGuess()) return rt;
+
+      guess.copyFrom(puzzle);
+      guess.setCellValue(row, col, val);
+
+      int found = count(guess, depth + 1, limit - rt);
+      if (found == 0 && stopStatus == null) backtrackCount++;
+      rt += found;
+    }
+    return rt;
+  }
+
+  /**
+   * startLimits(limits)
+   *
+   * Purpose:
+   *      Starts the clock and counts for a solve's limits
+   *
+   * Input:
+   *      @param limits - The limits of the solve
+   *
+   * Output:
+   *      None
+  */
+  private void startLimits(SolveLimits limits) {
+    this.limits = limits;
+    if (limits.getTimeoutNanos() > 0) deadline = System.nanoTime() + limits.getTimeoutNanos();
+
+    nodeCount = 0;
+    passCount = 0;
+    stopStatus = null;
+  }
+
+  /**
+   * startNode()
+   *
+   * Purpose:
+   *      Counts a search node and checks if the solve should stop
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - false if the solve should stop and the search unwind
+  */
+  private boolean startNode() {
+    nodeCount++;
+    if (limits.getMaxNodes() > 0 && nodeCount > limits.getMaxNodes()) {
+      stopStatus = SolveResult.Status.TIMED_OUT;
+      return false;
+    }
+    return !limitReached();
+  }
+
+  /**
+   * limitReached()
+   *
+   * Purpose:
+   *      Checks if the solve is out of time, was cancelled, or its thread
+   *      was interrupted
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - true if the solve should stop (stopStatus says why)
+  */
+  private boolean limitReached() {
+    if (stopStatus != null) return true;
+
+    CancellationToken token = limits.getToken();
+    if ((token != null && token.isCancelled()) || Thread.currentThread().isInterrupted()) {
+      stopStatus = SolveResult.Status.CANCELLED;
+    } else if (limits.getTimeoutNanos() > 0 && System.nanoTime() - deadline >= 0) {
+      stopStatus = SolveResult.Status.TIMED_OUT;
+    }
+    return stopStatus != null;
+  }
+
+  /**
+   * startGuess()
+   *
+   * Purpose:
+   *      Counts a guess, reporting progress every so often, and checks if
+   *      the solve was stopped
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - false if the solve was stopped and the search should
+   *                unwind
+  */
+  private boolean startGuess() {
+    if (stopStatus != null) return false;
+
+    guessCount++;
+    if (progressListener != null && guessCount % PROGRESS_GUESSES == 0) {
+      progressListener.accept(guessCount);
+    }
+    return true;
+  }
+
+  /**
+   * setProgressListener(listener)
+   *
+   * Purpose:
+   *      Sets what is told how a long solve is going. It is called on the
+   *      solving thread, so it should be quick
+   *
+   * Input:
+   *      @param listener - Given the number of guesses made so far, every
+   *                        so many guesses. null for no reports
+   *
+   * Output:
+   *      None
+  */
+  public void setProgressListener(IntConsumer listener) {
+    progressListener = listener;
+  }
+
+  /**
+   * setSinglesOnly(singlesOnly)
+   *
+   * Purpose:
+   *      Sets whether solves guess as soon as singles are stuck, instead of
+   *      trying intersections, subsets and fish first. Finding any one
+   *      solution of an easy or open grid is faster that way
+   *
+   * Input:
+   *      @param singlesOnly - true to skip the other strategies
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      getDifficulty() can then only give EASY or EXTREME
+  */
+  public void setSinglesOnly(boolean singlesOnly) {
+    this.singlesOnly = singlesOnly;
+  }
+
+  /**
+   * setMetrics(metrics)
+   *
+   * Purpose:
+   *      Sets where each solve's stage counts and times, search nodes,
+   *      backtracks and solve time are added
+   *
+   * Input:
+   *      @param metrics - The metrics, which may be shared with other
+   *                       engines, OR null to not measure anything
+   *
+   * Output:
+   *      None
+  */
+  @Override
+  public void setMetrics(SolverMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * propagate(puzzle)
+   *
+   * Purpose:
+   *      Fills cells by rows, columns and boxes, removing possibilities
+   *      with intersections, naked and hidden subsets and fish when that
+   *      gets stuck, until a full pass makes no progress
+   *
+   * Input:
+   *      @param puzzle - The puzzle to fill (it is modified)
+   *
+   * Output:
+   *      @return - FILLED if every cell was filled, STALLED if no more cells
+   *                could be found, CONTRADICTION if the puzzle can't work,
+   *                OR STOPPED if the solve hit its limits
+  */
+  private int propagate(SudokuPuzzle puzzle) {
+    while (puzzle.getNumFilledCells() < cellCount) {
+      int currentFilledCells = puzzle.getNumFilledCells();
+
+      // Checking the clock every pass would cost more than it is worth
+      if (++passCount % LIMIT_CHECK_PASSES == 0 && limitReached()) return STOPPED;
+
+      if (metrics != null) stageStart = System.nanoTime();
+
+      // Fill the cells down to one possible value
+      if (!record(SolveStage.SINGLES_QUEUE, puzzle.fillAllCellPossibilities())) return CONTRADICTION;
+
+      // Try to fill by rows
+      if (!record(SolveStage.ROW_SINGLES, puzzle.checkForFillableRows())) return CONTRADICTION;
+
+      // Try to fill the cols
+      if (!record(SolveStage.COL_SINGLES, puzzle.checkForFillableCols())) return CONTRADICTION;
+
+      // Try to fill the boxes
+      if (!record(SolveStage.BOX_SINGLES, puzzle.checkForFillableBoxs())) return CONTRADICTION;
+
+      if (currentFilledCells != puzzle.getNumFilledCells()) continue;
+      if (singlesOnly) return STALLED;
+
+      // Singles are stuck, try to remove possibilities so new ones show up
+      // The cheaper kind goes first, and each pass starts again with singles
+      int removed = puzzle.eliminateIntersections();
+      if (!record(SolveStage.INTERSECTIONS, removed)) return CONTRADICTION;
+      if (removed > 0) continue;
+
+      removed = puzzle.eliminateNakedSubsets();
+      if (!record(SolveStage.NAKED_SUBSETS, removed)) return CONTRADICTION;
+      if (removed > 0) continue;
+
+      removed = puzzle.eliminateHiddenSubsets();
+      if (!record(SolveStage.HIDDEN_SUBSETS, removed)) return CONTRADICTION;
+      if (removed > 0) continue;
+
+      removed = puzzle.eliminateFish();
+      if (!record(SolveStage.FISH, removed)) return CONTRADICTION;
+      if (removed > 0) continue;
+
+      // If we didnt update any cells in a full loop we are stuck
+      return STALLED;
+    }
+    return FILLED;
+  }
+
+  /**
+   * record(stage, count)
+   *
+   * Purpose:
+   *      Adds what a stage did to its strategy's count, and to the stage's
+   *      calls and time if there are metrics
+   *
+   * Input:
+   *      @param stage - The stage which was run
+   *      @param count - What it returned, -1 for a contradiction
+   *
+   * Output:
+   *      @return - false if the stage found a contradiction
+  */
+  private boolean record(SolveStage stage, int count) {
+    if (metrics != null) {
+      // Each stage starts when the one before it ends
+      long now = System.nanoTime();
+      int i = stage.ordinal();
+      stageCalls[i]++;
+      stageNanos[i] += now - stageStart;
+      if (count > 0) stageProgress[i] += count;
+      stageStart = now;
+    }
+
+    if (count < 0) return false;
+    strategyCounts[stage.getStrategy().ordinal()] += count;
+    return true;
+  }
+
+  /**
+   * resetCounts()
+   *
+   * Purpose:
+   *      Clears the strategy, stage and guess counts before a solve
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  private void resetCounts() {
+    for (int i = 0; i < strategyCounts.length; i++) {
+      strategyCounts[i] = 0;
+    }
+    for (int i = 0; i < stageCalls.length; i++) {
+      stageCalls[i] = 0;
+      stageProgress[i] = 0;
+      stageNanos[i] = 0;
+    }
+    guessCount = 0;
+    backtrackCount = 0;
+  }
+
+  /**
+   * getStrategyCount(strategy)
+   *
+   * Purpose:
+   *      Returns how much a strategy did in the last solve or count,
+   *      including inside guesses
+   *
+   * Input:
+   *      @param strategy - The strategy
+   *
+   * Output:
+   *      @return - The number of cells it filled (singles) or which lost
+   *                possible values (everything else)
+  */
+  public int getStrategyCount(Strategy strategy) {
+    return strategyCounts[strategy.ordinal()];
+  }
+
+  /**
+   * getGuessCount()
+   *
+   * Purpose:
+   *      Returns the number of guesses made in the last solve or count
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of guesses
+  */
+  public int getGuessCount() {
+    return guessCount;
+  }
+
+  /**
+   * getBacktrackCount()
+   *
+   * Purpose:
+   *      Returns the number of guesses in the last solve or count which
+   *      turned out to have no solution
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of wrong guesses
+  */
+  public int getBacktrackCount() {
+    return backtrackCount;
+  }
+
+  /**
+   * getDifficulty()
+   *
+   * Purpose:
+   *      Grades the last solved puzzle by the hardest strategy it needed.
+   *      A strategy is only run when the easier ones are stuck, so each
+   *      one used was needed
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - EXTREME if any guess was made, otherwise the difficulty
+   *                of the hardest strategy used
+  */
+  public Difficulty getDifficulty() {
+    if (guessCount > 0) return Difficulty.EXTREME;
+
+    Difficulty rt = Difficulty.EASY;
+    for (Strategy strategy : Strategy.ALL) {
+      if (strategyCounts[strategy.ordinal()] > 0 && strategy.getDifficulty().compareTo(rt) > 0)
+        rt = strategy.getDifficulty();
+    }
+    return rt;
+  }
+
+  /**
+   * grade(grid)
+   *
+   * Purpose:
+   *      Solves a puzzle to find how hard it is
+   *
+   * Input:
+   *      @param grid - 81 values in row order (0 for an empty cell, or 1-9)
+   *
+   * Output:
+   *      @return - The puzzle's difficulty OR null if it has no solution
+  */
+  public Difficulty grade(int[] grid) {
+    if (!solve(grid).isSolved()) return null;
+    return getDifficulty();
+  }
+}
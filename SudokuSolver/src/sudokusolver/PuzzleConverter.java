@@ -0,0 +1,178 @@
+/*
+ * PuzzleConverter.java
+ *
+ * Purpose: Converts puzzle files between puzzle lines and puzzle records
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Buffers its streams with ChunkPipeline's readers and
+ *                 writers like the other batch tools
+ */
+package sudokusolver;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * PuzzleConverter
+ *
+ * Purpose:
+ *      Converts puzzle lines (see PuzzleFormat) to puzzle records (see
+ *      BinaryPuzzleFormat), or back with --to-text. Blank lines are skipped,
+ *      and lines or records which are not puzzles are reported on stderr
+ *      and left out.
+ *
+ *      Usage: --convert [--to-text] [input|- [output]]
+ */
+public class PuzzleConverter {
+
+  private final int[] grid = new int[81];
+  private final char[] line = new char[PuzzleFormat.LINE_LENGTH + 1];
+
+  // Counts for the summary
+  private long puzzles;
+  private long errors;
+
+  /**
+   * main(args)
+   *
+   * Purpose:
+   *      Converts a puzzle file from command line arguments, then prints
+   *      the number of puzzles converted per second to stderr
+   *
+   * Input:
+   *      @param args - The arguments after --convert
+   *
+   * Output:
+   *      None
+  */
+  public static void main(String[] args) throws IOException {
+    boolean toText = false;
+    String input = "-";
+    String output = null;
+
+    int i = 0;
+    while (i < args.length && args[i].startsWith("--")) {
+      if (args[i].equals("--to-text")) {
+        toText = true;
+      } else {
+        throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+      i++;
+    }
+    if (i < args.length) input = args[i++];
+    if (i < args.length) output = args[i++];
+
+    InputStream in = input.equals("-") ? System.in : new FileInputStream(input);
+    OutputStream out = output == null ? System.out : new FileOutputStream(output);
+
+    PuzzleConverter converter = new PuzzleConverter();
+
+    long start = System.nanoTime();
+    try {
+      if (toText) {
+        converter.toText(in, out);
+      } else {
+        converter.toBinary(in, out);
+      }
+    } finally {
+      if (in != System.in) in.close();
+      if (out != System.out) out.close();
+    }
+    converter.printSummary(System.nanoTime() - start);
+  }
+
+  /**
+   * toBinary(in, out)
+   *
+   * Purpose:
+   *      Writes every puzzle line of in as a puzzle record
+   *
+   * Input:
+   *      @param in  - The puzzle lines
+   *      @param out - Where to write the records
+   *
+   * Output:
+   *      None
+  */
+  public void toBinary(InputStream in, OutputStream out) throws IOException {
+    BufferedReader reader = ChunkPipeline.newReader(in);
+    BinaryPuzzleWriter writer = new BinaryPuzzleWriter(out);
+
+    long lineNumber = 0;
+    String text;
+    while ((text = reader.readLine()) != null) {
+      lineNumber++;
+      if (text.trim().isEmpty()) continue;
+
+      if (!PuzzleFormat.parse(text, grid)) {
+        System.err.println("Line " + lineNumber + " is not a puzzle");
+        errors++;
+        continue;
+      }
+
+      writer.write(grid);
+      puzzles++;
+    }
+    writer.flush();
+  }
+
+  /**
+   * toText(in, out)
+   *
+   * Purpose:
+   *      Writes every puzzle record of in as a puzzle line
+   *
+   * Input:
+   *      @param in  - The puzzle records
+   *      @param out - Where to write the lines
+   *
+   * Output:
+   *      None
+  */
+  public void toText(InputStream in, OutputStream out) throws IOException {
+    BinaryPuzzleReader reader = new BinaryPuzzleReader(in);
+    Writer writer = ChunkPipeline.newWriter(out);
+
+    line[PuzzleFormat.LINE_LENGTH] = '\n';
+    while (reader.next()) {
+      if (!reader.read(grid)) {
+        System.err.println("Record " + reader.getRecordCount() + " is not a puzzle");
+        errors++;
+        continue;
+      }
+
+      PuzzleFormat.format(grid, line, 0);
+      writer.write(line);
+      puzzles++;
+    }
+    writer.flush();
+  }
+
+  /**
+   * printSummary(elapsedNanos)
+   *
+   * Purpose:
+   *      Prints the number of puzzles converted and the rate to stderr
+   *
+   * Input:
+   *      @param elapsedNanos - How long the conversion took
+   *
+   * Output:
+   *      None
+  */
+  public void printSummary(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    double rate = seconds > 0 ? puzzles / seconds : 0;
+
+    System.err.printf("Converted %d puzzles (%d bad) in %.3f s, %.1f puzzles/sec%n",
+        puzzles, errors, seconds, rate);
+  }
+}
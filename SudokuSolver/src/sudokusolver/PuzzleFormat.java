@@ -0,0 +1,241 @@
+/*
+ * PuzzleFormat.java
+ *
+ * Purpose: Reads and writes puzzles as 81 character lines
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Lines for 16x16 and 25x25 grids
+ */
+package sudokusolver;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PuzzleFormat
+ *
+ * Purpose:
+ *      A puzzle line has one character per cell in row order. Cells are
+ *      '1' - '9', and an empty cell is '0' or '.'
+ *      Example: 003020600900305001001806400008102900700000...
+ *
+ *      A bigger grid's line has one character per cell the same way, with
+ *      'A' for 10, 'B' for 11 and so on ('G' is 16, 'Y' is 25). Lower case
+ *      letters are read the same as upper case.
+ */
+public final class PuzzleFormat {
+
+  // The number of characters in a puzzle line
+  public static final int LINE_LENGTH = 81;
+
+  private PuzzleFormat() {
+  }
+
+  /**
+   * parse(line, grid)
+   *
+   * Purpose:
+   *      Reads a puzzle line into a grid
+   *
+   * Input:
+   *      @param line - The puzzle line, trailing whitespace is ignored
+   *      @param grid - The 81 value grid to fill in
+   *
+   * Output:
+   *      @return - false if the line is not a puzzle (grid is then partial)
+  */
+  public static boolean parse(CharSequence line, int[] grid) {
+    int length = line.length();
+    while (length > LINE_LENGTH && Character.isWhitespace(line.charAt(length - 1)))
+      length--;
+
+    if (length != LINE_LENGTH) return false;
+
+    for (int i = 0; i < LINE_LENGTH; i++) {
+      int val = toValue(line.charAt(i));
+      if (val < 0) return false;
+      grid[i] = val;
+    }
+    return true;
+  }
+
+  /**
+   * parse(line, grid, boxSize)
+   *
+   * Purpose:
+   *      Reads a puzzle line of any size grid into a grid
+   *
+   * Input:
+   *      @param line    - The puzzle line, trailing whitespace is ignored
+   *      @param grid    - The grid to fill in, lineLength(boxSize) values
+   *      @param boxSize - The grid's box size, 3 for 9x9
+   *
+   * Output:
+   *      @return - false if the line is not a puzzle (grid is then partial)
+  */
+  public static boolean parse(CharSequence line, int[] grid, int boxSize) {
+    if (boxSize == 3) return parse(line, grid);
+
+    int size = boxSize * boxSize;
+    int lineLength = lineLength(boxSize);
+
+    int length = line.length();
+    while (length > lineLength && Character.isWhitespace(line.charAt(length - 1)))
+      length--;
+
+    if (length != lineLength) return false;
+
+    for (int i = 0; i < lineLength; i++) {
+      int val = toValue(line.charAt(i), size);
+      if (val < 0) return false;
+      grid[i] = val;
+    }
+    return true;
+  }
+
+  /**
+   * decode(buffer, offset, grid)
+   *
+   * Purpose:
+   *      Reads a puzzle line from bytes into a grid, without making a
+   *      String of it first
+   *
+   * Input:
+   *      @param buffer - The bytes holding the line
+   *      @param offset - The index of the line's first byte
+   *      @param grid   - The 81 value grid to fill in
+   *
+   * Output:
+   *      @return - false if the bytes are not a puzzle (grid is then partial)
+  */
+  public static boolean decode(ByteBuffer buffer, int offset, int[] grid) {
+    if (offset < 0 || offset + LINE_LENGTH > buffer.limit()) return false;
+
+    for (int i = 0; i < LINE_LENGTH; i++) {
+      int val = toValue(buffer.get(offset + i));
+      if (val < 0) return false;
+      grid[i] = val;
+    }
+    return true;
+  }
+
+  /**
+   * format(grid, out, offset)
+   *
+   * Purpose:
+   *      Writes a grid as a puzzle line, using '.' for empty cells
+   *
+   * Input:
+   *      @param grid   - The 81 value grid
+   *      @param out    - The characters to write the line into
+   *      @param offset - Where in out to write the first character
+   *
+   * Output:
+   *      None
+  */
+  public static void format(int[] grid, char[] out, int offset) {
+    for (int i = 0; i < LINE_LENGTH; i++) {
+      out[offset + i] = toChar(grid[i]);
+    }
+  }
+
+  /**
+   * format(grid, out, offset, boxSize)
+   *
+   * Purpose:
+   *      Writes any size grid as a puzzle line, using '.' for empty cells
+   *
+   * Input:
+   *      @param grid    - The grid, lineLength(boxSize) values
+   *      @param out     - The characters to write the line into
+   *      @param offset  - Where in out to write the first character
+   *      @param boxSize - The grid's box size, 3 for 9x9
+   *
+   * Output:
+   *      None
+  */
+  public static void format(int[] grid, char[] out, int offset, int boxSize) {
+    int lineLength = lineLength(boxSize);
+    for (int i = 0; i < lineLength; i++) {
+      out[offset + i] = toChar(grid[i]);
+    }
+  }
+
+  /**
+   * lineLength(boxSize)
+   *
+   * Purpose:
+   *      Gives the number of characters in a puzzle line
+   *
+   * Input:
+   *      @param boxSize - The grid's box size, 3 for 9x9
+   *
+   * Output:
+   *      @return - The number of cells in the grid
+  */
+  public static int lineLength(int boxSize) {
+    return boxSize * boxSize * boxSize * boxSize;
+  }
+
+  /**
+   * toValue(c)
+   *
+   * Purpose:
+   *      Gives the value of a puzzle line character
+   *
+   * Input:
+   *      @param c - The character
+   *
+   * Output:
+   *      @return - 0 for an empty cell, 1-9, OR -1 if c is not a cell
+  */
+  static int toValue(int c) {
+    if (c == '.') return 0;
+    if (c >= '0' && c <= '9') return c - '0';
+    return -1;
+  }
+
+  /**
+   * toValue(c, size)
+   *
+   * Purpose:
+   *      Gives the value of a puzzle line character for any size grid
+   *
+   * Input:
+   *      @param c    - The character
+   *      @param size - The grid's largest value
+   *
+   * Output:
+   *      @return - 0 for an empty cell, 1 - size, OR -1 if c is not a cell
+  */
+  static int toValue(int c, int size) {
+    int val;
+    if (c >= 'A' && c <= 'Z') {
+      val = c - 'A' + 10;
+    } else if (c >= 'a' && c <= 'z') {
+      val = c - 'a' + 10;
+    } else {
+      val = toValue(c);
+    }
+    return val > size ? -1 : val;
+  }
+
+  /**
+   * toChar(val)
+   *
+   * Purpose:
+   *      Gives the puzzle line character for a cell value
+   *
+   * Input:
+   *      @param val - 0 for an empty cell, or 1-9 (up to 25 in bigger grids)
+   *
+   * Output:
+   *      @return - '.', '1' - '9' or 'A' - 'Y'
+  */
+  static char toChar(int val) {
+    if (val > 9) return (char) ('A' + val - 10);
+    return val == 0 ? '.' : (char) ('0' + val);
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * PuzzleGenerator.java
+ *
+ * Purpose: Makes new puzzles which have exactly one solution
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Can make puzzles of a wanted difficulty
+ *  Oct 18, 2026 - Fills and checks grids with singles only, solving into
+ *                 reused working space
+ *  Oct 18, 2026 - Gives up on a difficulty after MAX_MISSES puzzles in a
+ *                 row, and maxClues() tells which clue counts can reach it
+ */
+package sudokusolver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * PuzzleGenerator
+ *
+ * Purpose:
+ *      A random full grid is made by filling the three boxes on the
+ *      diagonal with random values (they share no rows or columns), solving
+ *      the rest, and shuffling the rows and columns in ways which keep it a
+ *      valid grid. Clues are then taken out in a random order, putting each
+ *      back if the puzzle stops having one solution, until the wanted
+ *      number of clues is left or no more can be taken out. When a
+ *      difficulty is wanted, puzzles are made until one is graded as it.
+ *
+ *      A generator keeps its engine and grids between puzzles, so one
+ *      generator should only be used by one thread at a time
+ */
+public class PuzzleGenerator {
+
+  // The fewest clues a puzzle with one solution can have
+  public static final int MIN_CLUES = 17;
+
+  // The puzzles in a row which may miss the wanted difficulty before
+  // generate(clues, difficulty, puzzle) gives up. Up to maxClues() about
+  // 1 in 3300 puzzles or more are of each difficulty, so this is only
+  // reached when the difficulty can't be made
+  public static final int MAX_MISSES = 100000;
+
+  // Fills grids and counts solutions, only with singles as no grade is
+  // needed, and grades puzzles when a difficulty is wanted
+  private final PropagationEngine engine = new PropagationEngine();
+  private final PropagationEngine grader = new PropagationEngine();
+  private SplittableRandom random;
+
+  // Working space
+  private final int[] seed = new int[81];
+  private final int[] solved = new int[81];
+  private final int[] order = new int[81];
+  private final int[] lines = new int[9];
+  private final int[] bands = new int[3];
+  private final int[] within = new int[3];
+
+  public PuzzleGenerator(long seed) {
+    engine.setSinglesOnly(true);
+    setSeed(seed);
+  }
+
+  /**
+   * setSeed(seed)
+   *
+   * Purpose:
+   *      Restarts the random values, so the same seed makes the same
+   *      puzzles again
+   *
+   * Input:
+   *      @param seed - The seed for the random values
+   *
+   * Output:
+   *      None
+  */
+  public void setSeed(long seed) {
+    random = new SplittableRandom(seed);
+  }
+
+  /**
+   * generate(clues, puzzle)
+   *
+   * Purpose:
+   *      Makes a puzzle with one solution and about the given number of
+   *      clues
+   *
+   * Input:
+   *      @param clues  - The number of clues wanted, MIN_CLUES - 81. Fewer
+   *                      clues take longer, and may not be reached
+   *      @param puzzle - The 81 value grid to put the puzzle in
+   *
+   * Output:
+   *      @return - The number of clues in the puzzle, at least clues
+  */
+  public int generate(int clues, int[] puzzle) {
+    if (clues < MIN_CLUES || clues > 81)
+      throw new IllegalArgumentException("Clues must be " + MIN_CLUES + " - 81");
+    if (puzzle.length != 81)
+      throw new IllegalArgumentException("A grid must have 81 cells");
+
+    fillGrid(puzzle);
+    return removeClues(puzzle, clues);
+  }
+
+  /**
+   * generate(clues, difficulty, puzzle)
+   *
+   * Purpose:
+   *      Makes puzzles like generate(clues, puzzle) until one of the given
+   *      difficulty comes up. Harder puzzles are rarer, and more clues
+   *      make them rarer still
+   *
+   * Input:
+   *      @param clues      - The most clues wanted, MIN_CLUES - 81
+   *      @param difficulty - The difficulty wanted
+   *      @param puzzle     - The 81 value grid to put the puzzle in
+   *
+   * Output:
+   *      @return - The number of clues in the puzzle
+   *
+   * Effects:
+   *      Throws IllegalStateException if MAX_MISSES puzzles in a row are
+   *      not of the difficulty, as it can't be made with that many clues
+  */
+  public int generate(int clues, Difficulty difficulty, int[] puzzle) {
+    for (int misses = 0; misses < MAX_MISSES; misses++) {
+      int rt = generate(clues, puzzle);
+      if (grader.grade(puzzle) == difficulty) return rt;
+    }
+    throw new IllegalStateException("No " + difficulty + " puzzle came up in " + MAX_MISSES
+        + " tries with " + clues + " clues, it needs at most " + maxClues(difficulty));
+  }
+
+  /**
+   * maxClues(difficulty)
+   *
+   * Purpose:
+   *      Returns the most clues puzzles of a difficulty can be asked for.
+   *      With more clues left in, the strategies a difficulty is graded by
+   *      are almost never needed (none turned up in 20000 puzzles a few
+   *      clues past these), so such puzzles would never be found
+   *
+   * Input:
+   *      @param difficulty - The difficulty wanted
+   *
+   * Output:
+   *      @return - The most clues, up to 81
+  */
+  public static int maxClues(Difficulty difficulty) {
+    switch (difficulty) {
+      case MEDIUM:
+        return 38;
+      case HARD:
+        return 36;
+      case EXPERT:
+        return 34;
+      case EXTREME:
+        return 42;
+      default:
+        return 81;
+    }
+  }
+
+  /**
+   * fillGrid(grid)
+   *
+   * Purpose:
+   *      Fills a grid with a random solved puzzle
+   *
+   * Input:
+   *      @param grid - The 81 value grid to fill
+   *
+   * Output:
+   *      None
+  */
+  public void fillGrid(int[] grid) {
+    // The diagonal boxes don't share rows or columns, any values work
+    Arrays.fill(seed, 0);
+    for (int box = 0; box < 9; box += 4) {
+      shuffle(lines, 9);
+      for (int i = 0; i < 9; i++) {
+        int row = (box / 3) * 3 + i / 3;
+        int col = (box % 3) * 3 + i % 3;
+        seed[row * 9 + col] = lines[i] + 1;
+      }
+    }
+
+    engine.solveInto(seed, solved);
+
+    // Swapping rows within a band, or whole bands, keeps the grid valid
+    // and the same goes for columns, which mixes up the solved cells
+    shuffleLines(lines);
+    for (int row = 0; row < 9; row++) {
+      System.arraycopy(solved, lines[row] * 9, grid, row * 9, 9);
+    }
+
+    shuffleLines(lines);
+    System.arraycopy(grid, 0, seed, 0, 81);
+    for (int row = 0; row < 9; row++) {
+      for (int col = 0; col < 9; col++) {
+        grid[row * 9 + col] = seed[row * 9 + lines[col]];
+      }
+    }
+  }
+
+  /**
+   * removeClues(grid, clues)
+   *
+   * Purpose:
+   *      Takes values out of a grid in a random order, as long as it keeps
+   *      one solution, until only clues values are left
+   *
+   * Input:
+   *      @param grid  - A puzzle with one solution (it is modified)
+   *      @param clues - The number of clues wanted
+   *
+   * Output:
+   *      @return - The number of clues left, at least clues
+  */
+  public int removeClues(int[] grid, int clues) {
+    int left = 0;
+    for (int cell = 0; cell < 81; cell++) {
+      if (grid[cell] != 0) left++;
+    }
+
+    shuffle(order, 81);
+    for (int i = 0; i < 81 && left > clues; i++) {
+      int cell = order[i];
+      int val = grid[cell];
+      if (val == 0) continue;
+
+      grid[cell] = 0;
+      if (engine.countSolutions(grid, 2) == 1) {
+        left--;
+      } else {
+        grid[cell] = val;
+      }
+    }
+    return left;
+  }
+
+  /**
+   * shuffleLines(lines)
+   *
+   * Purpose:
+   *      Makes a random order of the 9 rows (or columns) which keeps the
+   *      rows of each band together
+   *
+   * Input:
+   *      @param lines - The 9 values to fill, lines[i] is the old line
+   *                     which goes at i
+   *
+   * Output:
+   *      None
+  */
+  private void shuffleLines(int[] lines) {
+    shuffle(bands, 3);
+    for (int band = 0; band < 3; band++) {
+      shuffle(within, 3);
+      for (int i = 0; i < 3; i++) {
+        lines[band * 3 + i] = bands[band] * 3 + within[i];
+      }
+    }
+  }
+
+  /**
+   * shuffle(values, length)
+   *
+   * Purpose:
+   *      Fills values with 0 - length-1 in a random order
+   *
+   * Input:
+   *      @param values - The array to fill
+   *      @param length - The number of values
+   *
+   * Output:
+   *      None
+  */
+  private void shuffle(int[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      int j = random.nextInt(i + 1);
+      values[i] = values[j];
+      values[j] = i;
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * SolutionCache.java
+ *
+ * Purpose: Remembers the solutions of recently solved puzzles
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - Keyed by packed CanonicalKeys, in locked stripes instead
+ *                 of one monitor
+ */
+package sudokusolver;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SolutionCache
+ *
+ * Purpose:
+ *      A bounded map from a puzzle's canonical form (see Canonicalizer) to
+ *      the solution of that canonical form, both packed as CanonicalKeys.
+ *
+ *      Entries are spread over stripes by the hash of their key, and each
+ *      stripe is its own LinkedHashMap with its own lock, so threads only
+ *      wait for each other when they use the same stripe. When a stripe is
+ *      full the entry it used least recently is dropped. A lookup reuses
+ *      its stripe's probe key and unpacks the solution into the caller's
+ *      grid, so it allocates nothing. One cache can be shared by the
+ *      engines of many threads
+ */
+public class SolutionCache {
+
+  // The most stripes a cache is split into
+  private static final int MAX_STRIPES = 16;
+
+  // Packed keys, with the hash worked out once
+  private static final class Key {
+    final long[] words = new long[CanonicalKey.LONGS];
+    int hash;
+
+    Key set(long[] key, int hash) {
+      System.arraycopy(key, 0, words, 0, words.length);
+      this.hash = hash;
+      return this;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key && Arrays.equals(words, ((Key) other).words);
+    }
+  }
+
+  // One locked part of the cache
+  private static final class Stripe {
+    final LinkedHashMap<Key, long[]> entries;
+
+    // Reused by lookups, only while holding the stripe's lock
+    final Key probe = new Key();
+
+    Stripe(int capacity) {
+      // Access order makes the eldest entry the least recently used one
+      this.entries = new LinkedHashMap<Key, long[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+  }
+
+  private final Stripe[] stripes;
+
+  // Counts for reporting
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+
+  public SolutionCache(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("The capacity must be at least 1");
+
+    // A power of two, so a stripe is picked with a mask
+    int count = Math.min(MAX_STRIPES, Integer.highestOneBit(capacity));
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      // Spread the capacity so the stripes hold capacity entries in all
+      stripes[i] = new Stripe(capacity / count + (i < capacity % count ? 1 : 0));
+    }
+  }
+
+  /**
+   * get(key, solution)
+   *
+   * Purpose:
+   *      Looks up the solution of a canonical form
+   *
+   * Input:
+   *      @param key      - The canonical form, packed by CanonicalKey
+   *      @param solution - The 81 value grid to put the canonical form's
+   *                        solution in
+   *
+   * Output:
+   *      @return - false if it is not cached (solution is not changed)
+  */
+  public boolean get(long[] key, int[] solution) {
+    lookups.increment();
+
+    int hash = hash(key);
+    Stripe stripe = stripeOf(hash);
+    synchronized (stripe) {
+      long[] packed = stripe.entries.get(stripe.probe.set(key, hash));
+      if (packed == null) return false;
+
+      CanonicalKey.unpack(packed, 0, solution);
+    }
+    hits.increment();
+    return true;
+  }
+
+  /**
+   * put(key, solution)
+   *
+   * Purpose:
+   *      Remembers the solution of a canonical form
+   *
+   * Input:
+   *      @param key      - The canonical form, packed by CanonicalKey
+   *      @param solution - Its solution, in the canonical layout
+   *
+   * Output:
+   *      None
+  */
+  public void put(long[] key, int[] solution) {
+    int hash = hash(key);
+    Key entry = new Key().set(key, hash);
+    long[] packed = new long[CanonicalKey.LONGS];
+    CanonicalKey.pack(solution, packed, 0);
+
+    Stripe stripe = stripeOf(hash);
+    synchronized (stripe) {
+      stripe.entries.put(entry, packed);
+    }
+  }
+
+  /**
+   * size()
+   *
+   * Purpose:
+   *      Returns the number of cached solutions
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of entries
+  */
+  public int size() {
+    int rt = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        rt += stripe.entries.size();
+      }
+    }
+    return rt;
+  }
+
+  /**
+   * getLookups()
+   *
+   * Purpose:
+   *      Returns the number of times get() was called
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of lookups
+  */
+  public long getLookups() {
+    return lookups.sum();
+  }
+
+  /**
+   * getHits()
+   *
+   * Purpose:
+   *      Returns the number of lookups which found a solution
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of hits
+  */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * stripeOf(hash)
+   *
+   * Purpose:
+   *      Finds the stripe a key belongs in. It is picked by the high bits
+   *      of the hash, as the LinkedHashMaps bucket by the low bits
+   *
+   * Input:
+   *      @param hash - The key's hash
+   *
+   * Output:
+   *      @return - The stripe
+  */
+  private Stripe stripeOf(int hash) {
+    return stripes[(hash >>> 24) & (stripes.length - 1)];
+  }
+
+  /**
+   * hash(key)
+   *
+   * Purpose:
+   *      Mixes the longs of a packed key into a hash
+   *
+   * Input:
+   *      @param key - The packed canonical form
+   *
+   * Output:
+   *      @return - The hash
+  */
+  private static int hash(long[] key) {
+    long h = 0;
+    for (int i = 0; i < CanonicalKey.LONGS; i++) {
+      h = h * 0x9E3779B97F4A7C15L + key[i];
+    }
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * SolveLimits.java
+ *
+ * Purpose: Bounds how long a single solve may run
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolveLimits
+ *
+ * Purpose:
+ *      The time and the number of search nodes a solve may use, and a token
+ *      to stop it early. A search node is one puzzle the engine propagates,
+ *      the givens and each guess. A solve which runs out of time or nodes
+ *      returns TIMED_OUT, and one whose token is cancelled returns
+ *      CANCELLED, both with the cells found before guessing.
+ *
+ *      Limits hold no state of their own, so one can be used by many solves
+ */
+public final class SolveLimits {
+
+  // No time or node limit, and no token
+  public static final SolveLimits NONE = new SolveLimits(0, TimeUnit.NANOSECONDS, 0, null);
+
+  private final long timeoutNanos;
+  private final long maxNodes;
+  private final CancellationToken token;
+
+  /**
+   * SolveLimits(timeout, unit, maxNodes, token)
+   *
+   * Purpose:
+   *      Makes limits for solves
+   *
+   * Input:
+   *      @param timeout  - How long a solve may run from its start, 0 for
+   *                        no time limit
+   *      @param unit     - The unit of timeout
+   *      @param maxNodes - The most search nodes a solve may use, 0 for no
+   *                        node limit
+   *      @param token    - Stops the solve when cancelled, or null
+  */
+  public SolveLimits(long timeout, TimeUnit unit, long maxNodes, CancellationToken token) {
+    if (timeout < 0 || maxNodes < 0)
+      throw new IllegalArgumentException("Limits can't be negative");
+
+    this.timeoutNanos = unit.toNanos(timeout);
+    this.maxNodes = maxNodes;
+    this.token = token;
+  }
+
+  /**
+   * getTimeoutNanos()
+   *
+   * Purpose:
+   *      Returns how long a solve may run
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The time in nanoseconds, 0 for no time limit
+  */
+  public long getTimeoutNanos() {
+    return timeoutNanos;
+  }
+
+  /**
+   * getMaxNodes()
+   *
+   * Purpose:
+   *      Returns the most search nodes a solve may use
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of nodes, 0 for no node limit
+  */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * getToken()
+   *
+   * Purpose:
+   *      Returns the token which stops a solve
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The token, or null if there is none
+  */
+  public CancellationToken getToken() {
+    return token;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * SolveResult.java
+ *
+ * Purpose: Holds the outcome of a solve, independent of any window
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - CANCELLED status
+ *  Oct 18, 2026 - TIMED_OUT status
+ */
+package sudokusolver;
+
+public class SolveResult {
+
+  /**
+   * Status
+   *
+   * Purpose:
+   *      How far the engine got with the puzzle
+   */
+  public enum Status {
+    // Every cell was filled
+    SOLVED,
+    // The engine could not fill any more cells, the grid is partial
+    UNSOLVED,
+    // The given values repeat in a row, column or box, or a cell
+    // was left with no possible values
+    INVALID,
+    // The solving thread was interrupted or the solve's token cancelled
+    // before the engine finished, the grid is partial
+    CANCELLED,
+    // The solve ran out of time or search nodes (see SolveLimits), the
+    // grid is partial
+    TIMED_OUT
+  }
+
+  private final Status status;
+
+  // The grid after solving
+  // Format: grid[rowIndex * 9 + colIndex], 0 for an empty cell
+  private final int[] grid;
+
+  public SolveResult(Status status, int[] grid) {
+    this.status = status;
+    this.grid = grid;
+  }
+
+  /**
+   * getStatus()
+   *
+   * Purpose:
+   *      Returns how far the engine got with the puzzle
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The status of the solve
+  */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * isSolved()
+   *
+   * Purpose:
+   *      Returns if every cell of the grid was filled
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - true if the status is SOLVED
+  */
+  public boolean isSolved() {
+    return status == Status.SOLVED;
+  }
+
+  /**
+   * getGrid()
+   *
+   * Purpose:
+   *      Returns the grid after solving
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - 81 values in row order, 0 for an empty cell
+  */
+  public int[] getGrid() {
+    return grid;
+  }
+}
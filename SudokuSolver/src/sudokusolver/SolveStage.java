@@ -0,0 +1,57 @@
+/*
+ * SolveStage.java
+ *
+ * Purpose: The steps of a PropagationEngine pass, as measured by
+ *          SolverMetrics
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - CANDIDATE_FILL is SINGLES_QUEUE, which is what it times
+ */
+package sudokusolver;
+
+public enum SolveStage {
+
+  // Filling the cells queued as down to one possible value, and any they
+  // bring down to one in turn (fillAllCellPossibilities). Possible values
+  // are kept up to date as cells are placed, so this doesn't find them
+  SINGLES_QUEUE(Strategy.NAKED_SINGLE),
+
+  // Hidden singles in each row, col and box (checkForFillableRows...)
+  ROW_SINGLES(Strategy.HIDDEN_SINGLE),
+  COL_SINGLES(Strategy.HIDDEN_SINGLE),
+  BOX_SINGLES(Strategy.HIDDEN_SINGLE),
+
+  // The eliminations tried when singles are stuck (eliminateIntersections...)
+  INTERSECTIONS(Strategy.INTERSECTION),
+  NAKED_SUBSETS(Strategy.NAKED_SUBSET),
+  HIDDEN_SUBSETS(Strategy.HIDDEN_SUBSET),
+  FISH(Strategy.FISH);
+
+  // The stages in order, without copying values() each time
+  static final SolveStage[] ALL = values();
+
+  private final Strategy strategy;
+
+  SolveStage(Strategy strategy) {
+    this.strategy = strategy;
+  }
+
+  /**
+   * getStrategy()
+   *
+   * Purpose:
+   *      Returns the strategy whose count the stage's progress goes to
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The strategy
+  */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * SolveWorker.java
+ *
+ * Purpose: Solves the window's puzzle in the background so the window
+ *          keeps responding
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
+
+/**
+ * SolveWorker
+ *
+ * Purpose:
+ *      Runs one solve off the Event Dispatch Thread. While it runs, the
+ *      number of guesses so far is shown in the window title. Cancelling
+ *      the worker interrupts the solving thread, which stops the engine
+ *      at its next guess.
+ *
+ *      The engine is made for this solve only, so a cancelled solve which
+ *      has not unwound yet never shares an engine with the next one
+ */
+public class SolveWorker extends SwingWorker<SolveResult, Integer> {
+
+    private final int[] grid;
+    private final PropagationEngine engine = new PropagationEngine();
+    private final SudokuSolverWindow frame;
+    private final String title;
+
+    /**
+     * SolveWorker(frame, grid)
+     *
+     * Purpose:
+     *      Makes a worker to solve a grid and show the result in the frame
+     *
+     * Input:
+     *      @param frame - The window to show progress and the result in
+     *      @param grid  - 81 values in row order (0 for an empty cell, or 1-9)
+    */
+    public SolveWorker(SudokuSolverWindow frame, int[] grid) {
+        this.frame = frame;
+        this.grid = grid;
+        this.title = frame.getTitle();
+    }
+
+    // Runs on the worker thread
+    @Override
+    protected SolveResult doInBackground() {
+        engine.setProgressListener(this::publish);
+        return engine.solve(grid);
+    }
+
+    // Runs on the EDT with the guess counts published since the last call
+    @Override
+    protected void process(List<Integer> guesses) {
+        if (isCancelled()) return;
+        frame.setTitle(title + " - Solving (" + guesses.get(guesses.size() - 1) + " guesses)");
+    }
+
+    // Runs on the EDT once the solve is over or cancelled
+    @Override
+    protected void done() {
+        frame.setTitle(title);
+        SudokuSolver.solveFinished(this);
+
+        if (isCancelled()) return;
+
+        try {
+            SudokuSolver.showResult(get());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Solving failed", e.getCause());
+        }
+    }
+}
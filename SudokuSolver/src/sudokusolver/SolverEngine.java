@@ -0,0 +1,78 @@
+/*
+ * SolverEngine.java
+ *
+ * Purpose: The common interface of the engines which can solve a puzzle
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ *  Oct 18, 2026 - solveInto() for solving without allocating
+ *  Oct 18, 2026 - setMetrics() for counting and timing solves
+ */
+package sudokusolver;
+
+/**
+ * SolverEngine
+ *
+ * Purpose:
+ *      Solves grids of 81 values in row order (0 for an empty cell).
+ *      An engine keeps working state between solves, so one engine
+ *      should only be used by one thread at a time
+ */
+public interface SolverEngine {
+
+  /**
+   * solve(grid)
+   *
+   * Purpose:
+   *      Attempts to solve the given puzzle
+   *
+   * Input:
+   *      @param grid - 81 values in row order (0 for an empty cell, or 1-9)
+   *
+   * Output:
+   *      @return - The status and the grid after solving. The given grid
+   *                is not modified
+  */
+  SolveResult solve(int[] grid);
+
+  /**
+   * solveInto(grid, solution)
+   *
+   * Purpose:
+   *      Attempts to solve the given puzzle, writing the grid after solving
+   *      into the caller's array instead of a new SolveResult. Engines
+   *      which can do this without allocating override it
+   *
+   * Input:
+   *      @param grid     - 81 values in row order (0 for an empty cell, or 1-9)
+   *      @param solution - Where to write the grid after solving, may be
+   *                        grid itself
+   *
+   * Output:
+   *      @return - How far the engine got with the puzzle
+  */
+  default SolveResult.Status solveInto(int[] grid, int[] solution) {
+    SolveResult result = solve(grid);
+    System.arraycopy(result.getGrid(), 0, solution, 0, solution.length);
+    return result.getStatus();
+  }
+
+  /**
+   * setMetrics(metrics)
+   *
+   * Purpose:
+   *      Sets where the engine adds what each solve did. Engines which
+   *      don't measure anything ignore it
+   *
+   * Input:
+   *      @param metrics - The metrics, which may be shared with other
+   *                       engines, OR null to not measure anything
+   *
+   * Output:
+   *      None
+  */
+  default void setMetrics(SolverMetrics metrics) {
+  }
+}
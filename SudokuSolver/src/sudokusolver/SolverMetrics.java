@@ -0,0 +1,441 @@
+/*
+ * SolverMetrics.java
+ *
+ * Purpose: Counts and times the work of every solve, shown over JMX
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * SolverMetrics
+ *
+ * Purpose:
+ *      Totals for every engine given these metrics (see
+ *      SolverEngine.setMetrics()). An engine keeps its counts for the
+ *      running solve in its own fields and adds them here once when the
+ *      solve ends, and every total is a LongAdder, so the worker threads
+ *      of a batch can share one SolverMetrics without waiting on each
+ *      other.
+ *
+ *      Solve times go in a histogram with 8 buckets per power of two
+ *      nanoseconds, so a percentile is the top of its bucket and at most
+ *      1/8 more than the true value.
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+  // The name the metrics are registered under by register()
+  public static final String OBJECT_NAME = "sudokusolver:type=SolverMetrics";
+
+  // The number of histogram buckets per power of two, and its log
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private final LongAdder solves = new LongAdder();
+  private final LongAdder solved = new LongAdder();
+  private final LongAdder invalid = new LongAdder();
+  private final LongAdder stopped = new LongAdder();
+
+  private final LongAdder searchNodes = new LongAdder();
+  private final LongAdder guesses = new LongAdder();
+  private final LongAdder backtracks = new LongAdder();
+
+  // Per stage totals, indexed by ordinal()
+  private final LongAdder[] stageCalls = newAdders(SolveStage.ALL.length);
+  private final LongAdder[] stageProgress = newAdders(SolveStage.ALL.length);
+  private final LongAdder[] stageNanos = newAdders(SolveStage.ALL.length);
+
+  // Solve times
+  // Format: solveTimes[bucket(nanos)] is the number of solves in a bucket
+  private final LongAdder solveNanos = new LongAdder();
+  private final LongAdder[] solveTimes = newAdders(Long.SIZE * SUB_BUCKETS);
+  private final LongAccumulator maxSolveNanos = new LongAccumulator(Math::max, 0);
+
+  // The System.nanoTime() the rates are measured from
+  private volatile long startNanos = System.nanoTime();
+
+  /**
+   * register()
+   *
+   * Purpose:
+   *      Registers the metrics with the platform MBean server under
+   *      OBJECT_NAME, replacing any metrics registered there before
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+   *
+   * Effects:
+   *      Throws IllegalStateException if JMX refuses the metrics
+  */
+  public void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) server.unregisterMBean(name);
+      server.registerMBean(this, name);
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register the solver metrics", e);
+    }
+  }
+
+  /**
+   * addStage(stage, calls, progress, nanos)
+   *
+   * Purpose:
+   *      Adds what one solve did in a stage
+   *
+   * Input:
+   *      @param stage    - The stage
+   *      @param calls    - The number of times it was run
+   *      @param progress - The cells it filled or which lost possible values
+   *      @param nanos    - The time spent in it
+   *
+   * Output:
+   *      None
+  */
+  public void addStage(SolveStage stage, long calls, long progress, long nanos) {
+    if (calls == 0) return;
+
+    int i = stage.ordinal();
+    stageCalls[i].add(calls);
+    stageProgress[i].add(progress);
+    stageNanos[i].add(nanos);
+  }
+
+  /**
+   * addSolve(status, nanos, nodes, guesses, backtracks)
+   *
+   * Purpose:
+   *      Adds one finished solve
+   *
+   * Input:
+   *      @param status     - How the solve ended
+   *      @param nanos      - How long it took
+   *      @param nodes      - The search nodes it visited
+   *      @param guesses    - The guesses it made
+   *      @param backtracks - The guesses which turned out wrong
+   *
+   * Output:
+   *      None
+  */
+  public void addSolve(SolveResult.Status status, long nanos, long nodes, long guesses, long backtracks) {
+    solves.increment();
+    if (status == SolveResult.Status.SOLVED) {
+      solved.increment();
+    } else if (status == SolveResult.Status.INVALID) {
+      invalid.increment();
+    } else {
+      stopped.increment();
+    }
+
+    searchNodes.add(nodes);
+    this.guesses.add(guesses);
+    this.backtracks.add(backtracks);
+
+    solveNanos.add(nanos);
+    solveTimes[bucket(nanos)].increment();
+    maxSolveNanos.accumulate(nanos);
+  }
+
+  @Override
+  public long getSolves() {
+    return solves.sum();
+  }
+
+  @Override
+  public long getSolved() {
+    return solved.sum();
+  }
+
+  @Override
+  public long getInvalid() {
+    return invalid.sum();
+  }
+
+  @Override
+  public long getStopped() {
+    return stopped.sum();
+  }
+
+  @Override
+  public long getSearchNodes() {
+    return searchNodes.sum();
+  }
+
+  @Override
+  public long getGuesses() {
+    return guesses.sum();
+  }
+
+  @Override
+  public long getBacktracks() {
+    return backtracks.sum();
+  }
+
+  @Override
+  public double getElapsedSeconds() {
+    return (System.nanoTime() - startNanos) / 1e9;
+  }
+
+  @Override
+  public double getSolvesPerSecond() {
+    return perSecond(solves.sum());
+  }
+
+  @Override
+  public double getSearchNodesPerSecond() {
+    return perSecond(searchNodes.sum());
+  }
+
+  @Override
+  public double getMeanSolveMicros() {
+    long count = solves.sum();
+    return count > 0 ? solveNanos.sum() / 1e3 / count : 0;
+  }
+
+  @Override
+  public double getMaxSolveMicros() {
+    return maxSolveNanos.get() / 1e3;
+  }
+
+  @Override
+  public double getSolveMicrosP50() {
+    return percentile(0.5);
+  }
+
+  @Override
+  public double getSolveMicrosP90() {
+    return percentile(0.9);
+  }
+
+  @Override
+  public double getSolveMicrosP99() {
+    return percentile(0.99);
+  }
+
+  @Override
+  public double getSolveMicrosP999() {
+    return percentile(0.999);
+  }
+
+  @Override
+  public Map<String, Long> getStageCalls() {
+    return byStage(stageCalls, 1);
+  }
+
+  @Override
+  public Map<String, Long> getStageProgress() {
+    return byStage(stageProgress, 1);
+  }
+
+  @Override
+  public Map<String, Long> getStageMicros() {
+    return byStage(stageNanos, 1000);
+  }
+
+  /**
+   * reset()
+   *
+   * Purpose:
+   *      Clears every total and starts the rates again
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+   *
+   * Assumption:
+   *      Solves added while resetting may be partly cleared
+  */
+  @Override
+  public void reset() {
+    for (LongAdder adder : new LongAdder[] {solves, solved, invalid, stopped,
+                                            searchNodes, guesses, backtracks, solveNanos}) {
+      adder.reset();
+    }
+    for (LongAdder[] adders : new LongAdder[][] {stageCalls, stageProgress, stageNanos, solveTimes}) {
+      for (LongAdder adder : adders) adder.reset();
+    }
+    maxSolveNanos.reset();
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * printSummary()
+   *
+   * Purpose:
+   *      Prints the solve times and the work of each stage to stderr
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  public void printSummary() {
+    System.err.printf("  Solve us: mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+        getMeanSolveMicros(), getSolveMicrosP50(), getSolveMicrosP90(),
+        getSolveMicrosP99(), getSolveMicrosP999(), getMaxSolveMicros());
+    System.err.printf("  Search: %d nodes, %d guesses, %d backtracks%n",
+        getSearchNodes(), getGuesses(), getBacktracks());
+
+    for (SolveStage stage : SolveStage.ALL) {
+      int i = stage.ordinal();
+      long calls = stageCalls[i].sum();
+      if (calls == 0) continue;
+
+      System.err.printf("  %-14s %12d calls %12d progress %10.1f ms%n",
+          stage, calls, stageProgress[i].sum(), stageNanos[i].sum() / 1e6);
+    }
+  }
+
+  /**
+   * percentile(p)
+   *
+   * Purpose:
+   *      Finds the solve time a fraction of solves took no longer than
+   *
+   * Input:
+   *      @param p - The fraction, 0 - 1
+   *
+   * Output:
+   *      @return - The top of the bucket holding that solve (or the max),
+   *                in microseconds, OR 0 if there are no solves
+  */
+  private double percentile(double p) {
+    long[] counts = new long[solveTimes.length];
+    long total = 0;
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = solveTimes[i].sum();
+      total += counts[i];
+    }
+    if (total == 0) return 0;
+
+    // No solve took longer than the max, whatever its bucket's top is
+    long max = maxSolveNanos.get();
+    long rank = Math.max(1, (long) Math.ceil(p * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) return Math.min(bucketTop(i), max) / 1e3;
+    }
+    return max / 1e3;
+  }
+
+  /**
+   * bucket(nanos)
+   *
+   * Purpose:
+   *      Finds the histogram bucket of a solve time. Times below
+   *      SUB_BUCKETS get a bucket each, and each power of two above is
+   *      split into SUB_BUCKETS even buckets
+   *
+   * Input:
+   *      @param nanos - The solve time
+   *
+   * Output:
+   *      @return - The index into solveTimes
+  */
+  private static int bucket(long nanos) {
+    if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * bucketTop(bucket)
+   *
+   * Purpose:
+   *      Finds the longest solve time in a bucket
+   *
+   * Input:
+   *      @param bucket - The index into solveTimes
+   *
+   * Output:
+   *      @return - The time in nanoseconds
+  */
+  private static long bucketTop(int bucket) {
+    if (bucket < SUB_BUCKETS) return bucket;
+
+    int shift = bucket / SUB_BUCKETS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+  }
+
+  /**
+   * perSecond(count)
+   *
+   * Purpose:
+   *      Divides a total by the time since the metrics started
+   *
+   * Input:
+   *      @param count - The total
+   *
+   * Output:
+   *      @return - The total per second
+  */
+  private double perSecond(long count) {
+    double seconds = getElapsedSeconds();
+    return seconds > 0 ? count / seconds : 0;
+  }
+
+  /**
+   * byStage(adders, divisor)
+   *
+   * Purpose:
+   *      Sums per stage totals into a map by stage name
+   *
+   * Input:
+   *      @param adders  - The totals, indexed by ordinal()
+   *      @param divisor - What to divide each total by
+   *
+   * Output:
+   *      @return - The totals in stage order
+  */
+  private static Map<String, Long> byStage(LongAdder[] adders, long divisor) {
+    Map<String, Long> rt = new LinkedHashMap<String, Long>();
+    for (SolveStage stage : SolveStage.ALL) {
+      rt.put(stage.name(), adders[stage.ordinal()].sum() / divisor);
+    }
+    return rt;
+  }
+
+  /**
+   * newAdders(count)
+   *
+   * Purpose:
+   *      Makes an array of new LongAdders
+   *
+   * Input:
+   *      @param count - The number of adders
+   *
+   * Output:
+   *      @return - The adders
+  */
+  private static LongAdder[] newAdders(int count) {
+    LongAdder[] rt = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      rt[i] = new LongAdder();
+    }
+    return rt;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * SolverMetricsMXBean.java
+ *
+ * Purpose: What SolverMetrics shows over JMX
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+import java.util.Map;
+
+/**
+ * SolverMetricsMXBean
+ *
+ * Purpose:
+ *      Totals since the metrics were made or last reset. Stage maps are
+ *      keyed by SolveStage name, and times are in microseconds.
+ */
+public interface SolverMetricsMXBean {
+
+  // Solves by how they ended
+  long getSolves();
+  long getSolved();
+  long getInvalid();
+  long getStopped();
+
+  // Search work of all solves
+  long getSearchNodes();
+  long getGuesses();
+  long getBacktracks();
+
+  // Rates over the time since the metrics were made or last reset
+  double getElapsedSeconds();
+  double getSolvesPerSecond();
+  double getSearchNodesPerSecond();
+
+  // Solve times, percentiles are within 1/8 of the true value
+  double getMeanSolveMicros();
+  double getMaxSolveMicros();
+  double getSolveMicrosP50();
+  double getSolveMicrosP90();
+  double getSolveMicrosP99();
+  double getSolveMicrosP999();
+
+  // Per stage of the propagation engine
+  Map<String, Long> getStageCalls();
+  Map<String, Long> getStageProgress();
+  Map<String, Long> getStageMicros();
+
+  // Clears every total and starts the rates again
+  void reset();
+}
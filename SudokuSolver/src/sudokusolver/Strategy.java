@@ -0,0 +1,57 @@
+/*
+ * Strategy.java
+ *
+ * Purpose: The ways PropagationEngine makes progress on a puzzle
+ *
+ * Author: Jacob Boertjes
+ *
+ * Revisions:
+ *  Oct 18, 2026 - Created
+ */
+package sudokusolver;
+
+public enum Strategy {
+
+  // A cell with one possible value left (fillCellPossibilities)
+  NAKED_SINGLE(Difficulty.EASY),
+
+  // A value with one place left in a row, col or box (checkFillableRow...)
+  HIDDEN_SINGLE(Difficulty.EASY),
+
+  // Pointing pairs and box/line reduction (eliminateIntersections)
+  INTERSECTION(Difficulty.MEDIUM),
+
+  // Naked pairs, triples and quads (eliminateNakedSubsets)
+  NAKED_SUBSET(Difficulty.HARD),
+
+  // Hidden pairs, triples and quads (eliminateHiddenSubsets)
+  HIDDEN_SUBSET(Difficulty.HARD),
+
+  // X-Wing, Swordfish and Jellyfish (eliminateFish)
+  FISH(Difficulty.EXPERT);
+
+  // The strategies in order, without copying values() each time
+  static final Strategy[] ALL = values();
+
+  private final Difficulty difficulty;
+
+  Strategy(Difficulty difficulty) {
+    this.difficulty = difficulty;
+  }
+
+  /**
+   * getDifficulty()
+   *
+   * Purpose:
+   *      Returns how hard a puzzle which needs this strategy is
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The difficulty
+  */
+  public Difficulty getDifficulty() {
+    return difficulty;
+  }
+}
@@ -8,45 +8,65 @@
  * Revisions:
  *  Jan 15, 2018 - Created
  *  Jan 16, 2018 - Functions Implemented
+ *  Oct 18, 2026 - Possibilities stored as bitmasks instead of TreeSets
+ *  Oct 18, 2026 - No longer updates the frame, so it can be used headless
+ *  Oct 18, 2026 - Contradiction checks and copyFrom() for guessing
+ *  Oct 18, 2026 - reset() so one puzzle can be reused per thread
+ *  Oct 18, 2026 - Possibilities kept up to date as each cell is filled
+ *  Oct 18, 2026 - Only rows, cols and boxes that changed are checked
+ *  Oct 18, 2026 - Naked and hidden pairs, triples and quads
+ *  Oct 18, 2026 - Pointing pairs and box/line reduction
+ *  Oct 18, 2026 - X-Wing, Swordfish and Jellyfish
+ *  Oct 18, 2026 - Any box size up to 5, for 16x16 and 25x25 grids
+ *  Oct 18, 2026 - Cells kept by index, with peers and units from Geometry
+ *  Oct 18, 2026 - load() and copyCells() for reuse without allocating
  */
 package sudokusolver;
 
-import java.util.ArrayList;
-import java.util.TreeSet;
 import java.util.Arrays;
-import java.util.HashMap;
 
 
 /**
- * Coordinate
+ * SudokuPuzzle
  *
  * Purpose:
- *      A small class to hold a coordinate which will be used in the HashMap
+ *      A grid of boxSize x boxSize boxes, each boxSize x boxSize cells, so
+ *      a row, col or box has boxSize^2 cells and values 1 - boxSize^2.
+ *      The usual 9x9 puzzle has a box size of 3. Possibilities are int
+ *      bitmasks, which hold the 25 values of the largest (25x25) grid.
+ *
+ *      Below, "9" stands for the size of a row, col or box and "81" for
+ *      the number of cells, as they are for a 9x9 puzzle
  */
-class Coordinate {
-  private int x;
-  private int y;
+public class SudokuPuzzle {
 
-  public Coordinate(int x, int y) {
-    this.x = x;
-    this.y = y;
-  }
+  // The box sizes a puzzle can have
+  public static final int MIN_BOX_SIZE = 2;
+  public static final int MAX_BOX_SIZE = 5;
 
-  public int getx() {
-    return x;
-  }
+  // The width of a box in cells
+  private final int boxSize;
 
-  public int gety() {
-    return y;
-  }
-}
+  // The number of cells in a row, col or box, which is also the largest
+  // value
+  private final int size;
 
+  // The number of cells in the puzzle
+  private final int cellCount;
 
-public class SudokuPuzzle {
+  // The mask of every value (see CandidateMask)
+  private final int allValues;
 
-  // 2D array to keep track of all cell values
-  // Format: cells[rowIndex][colIndex]
-  private int[][] cells;
+  // The lookup tables of this box size (see Geometry)
+  private final int[] rowOf;
+  private final int[] colOf;
+  private final int[] boxOf;
+  private final int[][] units;
+  private final int[][] peers;
+
+  // Array to keep track of all cell values
+  // Format: cells[row * 9 + col]
+  private int[] cells;
 
   // A 2D array to keep track of numbers which exist in each row
   // Format: rowContents[rowIndex][numberValue] == 1 if numberValue is in row
@@ -80,42 +100,244 @@ public class SudokuPuzzle {
   //  ----------------------------
   private int[][] boxContents;
 
-  // A map for each cell to keep track of possibilities for that cell
-  // Format: possibilities[rowIndex][colIndex]
-  private HashMap<Coordinate,TreeSet<Integer>> possibilities;
-
-  // An array to keep the coordinate objects for possibilities map
-  private Coordinate[][] coordinates;
-
-  // We need access to the frame
-  SudokuSolverWindow frame;
+  // The same contents as bitmasks (see CandidateMask) so a cell's
+  // possibilities can be found without looping over values
+  // Format: rowUsed[rowIndex], colUsed[colIndex], boxUsed[boxIndex]
+  private int[] rowUsed;
+  private int[] colUsed;
+  private int[] boxUsed;
+
+  // A bitmask for each cell to keep track of possibilities for that cell
+  // Filling a cell removes its value from the cell's row, column and box
+  // so these are always up to date
+  // Format: possibilities[row * 9 + col] (see CandidateMask)
+  private int[] possibilities;
+
+  // Empty cells which are down to one possible value, waiting to be filled
+  // Format: singles[i] == row * 9 + col, for i < numSingles
+  private int[] singles;
+  private int numSingles;
+
+  // Set when filling a cell left one of its peers with no possible values
+  private boolean contradiction;
+
+  // Rows, cols and boxes with a cell filled or a possibility removed since
+  // they were last checked for fillable values
+  // Format: bit i of dirtyRows is set if row i has changed
+  private int dirtyRows;
+  private int dirtyCols;
+  private int dirtyBoxs;
 
   // Keep track of the number of filled filled cells
   private int filledCells;
 
-  public SudokuPuzzle(SudokuSolverWindow frame) {
+  // Working space for finding subsets within one unit
+  // Format: subsetCells[i] == row * 9 + col of the unit's i'th empty cell
+  //         subsetMasks[i] == that cell's possibilities (naked subsets)
+  //                        OR the unit's empty cells value i + 1 can go
+  //                           in, as a mask of indexes into subsetCells
+  //                           (hidden subsets)
+  private final int[] subsetCells;
+  private final int[] subsetMasks;
+
+  // Working space for finding fish, for each value where it can go
+  // Format: fishRows[val - 1][row] == mask of cols in the row it can go in
+  //         fishCols[val - 1][col] == mask of rows in the col it can go in
+  private final int[][] fishRows;
+  private final int[][] fishCols;
+
+  public SudokuPuzzle() {
+    this(3);
+  }
 
-    // Initialize the frame
-    this.frame = frame;
+  public SudokuPuzzle(int boxSize) {
+    if (boxSize < MIN_BOX_SIZE || boxSize > MAX_BOX_SIZE)
+      throw new IllegalArgumentException("The box size must be " + MIN_BOX_SIZE + " - " + MAX_BOX_SIZE);
+
+    this.boxSize = boxSize;
+    this.size = boxSize * boxSize;
+    this.cellCount = size * size;
+    this.allValues = CandidateMask.all(size);
+
+    Geometry geometry = Geometry.of(boxSize);
+    rowOf = geometry.rowOf;
+    colOf = geometry.colOf;
+    boxOf = geometry.boxOf;
+    units = geometry.units;
+    peers = geometry.peers;
 
     // Initialize the cells
-    cells = new int[9][9];
+    cells = new int[cellCount];
 
     // Initialize the row, column and box contents
-    rowContents = new int[9][10];
-    colContents = new int[9][10];
-    boxContents = new int[9][10];
+    rowContents = new int[size][size + 1];
+    colContents = new int[size][size + 1];
+    boxContents = new int[size][size + 1];
+    rowUsed = new int[size];
+    colUsed = new int[size];
+    boxUsed = new int[size];
+
+    // Initialize possibilities, every value is possible in an empty puzzle
+    possibilities = new int[cellCount];
+    Arrays.fill(possibilities, allValues);
+
+    // Initialize the singles
+    singles = new int[cellCount];
+    numSingles = 0;
+    contradiction = false;
+
+    // Every row, col and box needs checking at first
+    dirtyRows = allValues;
+    dirtyCols = allValues;
+    dirtyBoxs = allValues;
 
-    // Initialize possibilities
-    possibilities = new HashMap<Coordinate, TreeSet<Integer>>();
+    // Initialize filledCells
+    filledCells = 0;
 
-    // Initialize the coordinate Array
-    coordinates = new Coordinate[9][9];
+    // Initialize the working space
+    subsetCells = new int[size];
+    subsetMasks = new int[size];
+    fishRows = new int[size][size];
+    fishCols = new int[size][size];
+  }
 
-    // Initialize filledCells
+  /**
+   * reset()
+   *
+   * Purpose:
+   *      Empties every cell so the puzzle can be reused for another grid
+   *      without allocating new arrays
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  public void reset() {
+    Arrays.fill(cells, 0);
+    Arrays.fill(possibilities, allValues);
+    for (int i = 0; i < size; i++) {
+      Arrays.fill(rowContents[i], 0);
+      Arrays.fill(colContents[i], 0);
+      Arrays.fill(boxContents[i], 0);
+    }
+    Arrays.fill(rowUsed, 0);
+    Arrays.fill(colUsed, 0);
+    Arrays.fill(boxUsed, 0);
+    numSingles = 0;
+    contradiction = false;
+    dirtyRows = allValues;
+    dirtyCols = allValues;
+    dirtyBoxs = allValues;
     filledCells = 0;
   }
 
+  /**
+   * load(grid)
+   *
+   * Purpose:
+   *      Empties the puzzle and fills in a grid's given values, so one
+   *      puzzle can be reused for every grid without allocating
+   *
+   * Input:
+   *      @param grid - 81 values in row order (0 for an empty cell, or 1-9)
+   *
+   * Output:
+   *      @return - false if a given value repeats in a row, column or box
+   *                (the puzzle is then partly filled)
+   *
+   * Effects:
+   *      Throws IllegalArgumentException if the grid is the wrong size
+   *      Throws NumberFormatException if a value is not 0-9
+  */
+  public boolean load(int[] grid) {
+    if (grid.length != cellCount)
+      throw new IllegalArgumentException("A grid must have " + cellCount + " cells");
+
+    reset();
+    for (int cell = 0; cell < cellCount; cell++) {
+      int val = grid[cell];
+
+      if (val == 0) continue;
+
+      if (val > size || val < 0)
+        throw new NumberFormatException();
+
+      int used = rowUsed[rowOf[cell]] | colUsed[colOf[cell]] | boxUsed[boxOf[cell]];
+      if (CandidateMask.contains(used, val)) return false;
+
+      place(cell, val);
+    }
+    return true;
+  }
+
+  /**
+   * copyCells(grid)
+   *
+   * Purpose:
+   *      Copies the puzzle's cells out in row order
+   *
+   * Input:
+   *      @param grid - The 81 value grid to fill in, 0 for an empty cell
+   *
+   * Output:
+   *      None
+  */
+  public void copyCells(int[] grid) {
+    if (grid.length != cellCount)
+      throw new IllegalArgumentException("A grid must have " + cellCount + " cells");
+
+    System.arraycopy(cells, 0, grid, 0, cellCount);
+  }
+
+  /**
+   * getBoxSize()
+   *
+   * Purpose:
+   *      Returns the width of a box in cells
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The box size, 3 for a 9x9 puzzle
+  */
+  public int getBoxSize() {
+    return boxSize;
+  }
+
+  /**
+   * getSize()
+   *
+   * Purpose:
+   *      Returns the number of cells in a row, col or box
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The size, which is also the largest value
+  */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * getCellCount()
+   *
+   * Purpose:
+   *      Returns the number of cells in the puzzle
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - size * size
+  */
+  public int getCellCount() {
+    return cellCount;
+  }
 
   /**
    * getNumFilledCells()
@@ -147,17 +369,38 @@ public class SudokuPuzzle {
    *      @return - 0 If the cell is empty, or the cell's value (1-9)
   */
   public int getCellValue(int row, int col) {
-    if (row > 8 || row < 0 || col > 8 || col < 0)
+    if (row >= size || row < 0 || col >= size || col < 0)
+      throw new IndexOutOfBoundsException();
+
+    return cells[row * size + col];
+  }
+
+  /**
+   * getCellPossibilities(row, col)
+   *
+   * Purpose:
+   *      Returns the possible values of a given cell
+   *
+   * Input:
+   *      @param row - The index of the cell's row
+   *      @param col - The index of the cell's col
+   *
+   * Output:
+   *      @return - A bitmask of possible values (see CandidateMask)
+  */
+  public int getCellPossibilities(int row, int col) {
+    if (row >= size || row < 0 || col >= size || col < 0)
       throw new IndexOutOfBoundsException();
 
-    return cells[row][col];
+    return possibilities[row * size + col];
   }
 
   /**
    * setCellValue(row, col, val)
    *
    * Purpose:
-   *      Sets the value of a given cell
+   *      Sets the value of a given cell, and removes the value from the
+   *      possibilities of the other cells in its row, column and box
    *
    * Input:
    *      @param row - The index of the cell's row (0-8)
@@ -169,66 +412,155 @@ public class SudokuPuzzle {
   */
   public void setCellValue(int row, int col, int val) {
     // Check for valid input arguments
-    if (val > 9 || val < 0)
+    if (val > size || val < 0)
       throw new NumberFormatException();
 
-    if (row > 8 || row < 0 || col > 8 || col < 0)
+    if (row >= size || row < 0 || col >= size || col < 0)
       throw new IndexOutOfBoundsException();
 
-    cells[row][col] = val;
-    if (val != 0) frame.textFields[row][col].setText(String.valueOf(val));
+    int cell = row * size + col;
+    if (val == 0) {
+      cells[cell] = 0;
+      return;
+    }
+    place(cell, val);
+  }
 
-    // If we are making a cell non-empty, add to number of filled cells
-    if (val != 0) {
+  /**
+   * place(cell, val)
+   *
+   * Purpose:
+   *      Fills an empty cell with a value, and removes the value from the
+   *      possibilities of its peers. The solving loops use this instead of
+   *      setCellValue(), as their cells and values are already known to be
+   *      in range
+   *
+   * Input:
+   *      @param cell - The index of the cell (row * 9 + col)
+   *      @param val  - The value to fill it with (1-9)
+   *
+   * Output:
+   *      None
+  */
+  private void place(int cell, int val) {
+    cells[cell] = val;
+    filledCells++;
+
+    int row = rowOf[cell];
+    int col = colOf[cell];
+    int boxIndex = boxOf[cell];
+    int bit = CandidateMask.bit(val);
+
+    // Add to the number of filled cells in each row, column and box
+    rowContents[row][0]++;
+    colContents[col][0]++;
+    boxContents[boxIndex][0]++;
+
+    // Also update that val exists in the row, col and box
+    rowContents[row][val] = 1;
+    colContents[col][val] = 1;
+    boxContents[boxIndex][val] = 1;
+    rowUsed[row] |= bit;
+    colUsed[col] |= bit;
+    boxUsed[boxIndex] |= bit;
+
+    // A filled cell has no other possibilities
+    possibilities[cell] = 0;
+    markDirty(cell);
+
+    // Only the 20 cells sharing a row, column or box can change
+    for (int peer : peers[cell]) {
+      removePossibility(peer, bit);
+    }
+  }
+
+  /**
+   * markDirty(cell)
+   *
+   * Purpose:
+   *      Marks a cell's row, col and box as needing to be checked again
+   *
+   * Input:
+   *      @param cell - The index of the cell (row * 9 + col)
+   *
+   * Output:
+   *      None
+  */
+  private void markDirty(int cell) {
+    dirtyRows |= 1 << rowOf[cell];
+    dirtyCols |= 1 << colOf[cell];
+    dirtyBoxs |= 1 << boxOf[cell];
+  }
 
-      filledCells++;
+  /**
+   * removePossibility(cell, bit)
+   *
+   * Purpose:
+   *      Removes a value from a cell's possibilities. Remembers the cell
+   *      if this leaves it with one possible value, or notes a
+   *      contradiction if it leaves none
+   *
+   * Input:
+   *      @param cell - The index of the cell (row * 9 + col)
+   *      @param bit  - The value's mask bit (see CandidateMask), or the
+   *                    bits of several values to remove them all
+   *
+   * Output:
+   *      @return - true if the cell had any of the values to remove
+  */
+  private boolean removePossibility(int cell, int bit) {
+    int vals = possibilities[cell];
 
-      int boxIndex = coordinateToBoxIdx(row,col);
+    // Filled cells have no possibilities, so they are skipped here too
+    if ((vals & bit) == 0) return false;
 
-      // Add to the number of filled cells in each row, column and box
-      rowContents[row][0]++;
-      colContents[col][0]++;
-      boxContents[boxIndex][0]++;
+    vals &= ~bit;
+    possibilities[cell] = vals;
+    markDirty(cell);
 
-      // Also update that val exists in the row, col and box
-      rowContents[row][val] = 1;
-      colContents[col][val] = 1;
-      boxContents[boxIndex][val] = 1;
+    if (vals == 0) {
+      contradiction = true;
+    } else if ((vals & (vals - 1)) == 0) {
+      singles[numSingles++] = cell;
     }
+    return true;
   }
 
   /**
-   * coordinateToBoxIdx(row, col)
+   * isValueAllowed(row, col, val)
    *
    * Purpose:
-   *      Gives the coresponding box index for a given cell coordinate
+   *      Checks if a value could be placed in a cell without repeating
+   *      a value already in the cell's row, column or box
    *
    * Input:
    *      @param row - The index of the cell's row (0-8)
    *      @param col - The index of the cell's col (0-8)
+   *      @param val - The value to check (1-9)
    *
    * Output:
-   *      @return - The index of the box which contains the cell's coordinates
+   *      @return - true if the value is not yet in the row, column or box
   */
-  private int coordinateToBoxIdx(int row, int col) {
-    if (row > 8 || row < 0 || col > 8 || col < 0)
+  public boolean isValueAllowed(int row, int col, int val) {
+    if (val > size || val < 1)
+      throw new NumberFormatException();
+
+    if (row >= size || row < 0 || col >= size || col < 0)
       throw new IndexOutOfBoundsException();
 
-    // Seems silly to divide by 3 then multiply by 3
-    //  but it will remove remainder before multiplying, giving proper answer
-    return (row/3)*3 + (col/3);
+    int used = rowUsed[row] | colUsed[col] | boxUsed[boxOf[row * size + col]];
+    return !CandidateMask.contains(used, val);
   }
 
   /**
    * fillAllCellPossibilities()
    *
    * Purpose:
-   *      Fills all cells' possible values. Will fill any
-   *      cell's true values if they only had one possibility
+   *      Fills every cell which is down to one possible value, including
+   *      any which get down to one because of those fills
    *
    * Input:
-   *      @param row - The index of the cell's row (0-8)
-   *      @param col - The index of the cell's col (0-8)
+   *      None
    *
    * Output:
    *      @return - The number of cells whose true value was found
@@ -240,31 +572,27 @@ public class SudokuPuzzle {
   public int fillAllCellPossibilities() {
     int rt = 0;
 
-    for (int row = 0; row < 9; row++) {
-      for (int col = 0; col < 9; col++) {
+    // Filling a cell may add more singles, keep going until there are none
+    while (numSingles > 0 && !contradiction) {
+      int cell = singles[--numSingles];
 
-        // We only need to fill in for empty cells
-        if (cells[row][col] != 0) continue;
-
-        // Fill in the cell's possible values
-        switch (fillCellPossibilities(row,col)) {
-          case 0:
-            return -1;
-          case 1:
-            rt++;
-            break;
-        }
+      // Fill in the cell if it is still empty
+      int vals = possibilities[cell];
+      if (vals != 0) {
+        place(cell, CandidateMask.lowest(vals));
+        rt++;
       }
     }
-    return rt;
+
+    return contradiction ? -1 : rt;
   }
 
   /**
    * fillCellPossibilities(row, col)
    *
    * Purpose:
-   *      Fills a given cell's possible values. If it
-   *      only has one possibility, it fills it in as the true value
+   *      If a given cell only has one possibility, it fills it in as the
+   *      true value
    *
    * Input:
    *      @param row - The index of the cell's row (0-8)
@@ -272,39 +600,20 @@ public class SudokuPuzzle {
    *
    * Output:
    *      @return - The number of possible values for this cell
-   *
-   * Assumption:
-  *       The row, col and box contents have been filled already
+   *                (0 if the cell is already filled)
   */
   public int fillCellPossibilities(int row, int col) {
-    if (row > 8 || row < 0 || col > 8 || col < 0)
+    if (row >= size || row < 0 || col >= size || col < 0)
       throw new IndexOutOfBoundsException();
 
-    // Make an TreeSet for this cell's possible values
-    TreeSet<Integer> vals = new TreeSet<Integer>(Arrays.asList(1,2,3,4,5,6,7,8,9));
-
-    // default return is 9
-    int rt = 9;
-
-    // Remove each value which is inside this row, column or box
-    for (int i = 1; i <= 9; i++) {
-      if (rowContents[row][i] == 1) {if (vals.remove(i)) rt--;}
-      if (colContents[col][i] == 1) {if (vals.remove(i)) rt--;}
-      if (boxContents[coordinateToBoxIdx(row,col)][i] == 1) {if (vals.remove(i)) rt--;}
-    }
+    int cell = row * size + col;
+    int vals = possibilities[cell];
+    int rt = CandidateMask.count(vals);
 
     if (rt == 1) {
-      setCellValue(row, col, vals.first());
+      place(cell, CandidateMask.lowest(vals));
     }
 
-    // If the coordinate doesn't exist yet
-    if (coordinates[row][col] == null) {
-      coordinates[row][col] = new Coordinate(row, col);
-    }
-
-    // Now that we have made our list, put it in the HashMap
-    possibilities.put(coordinates[row][col], vals);
-
     return rt;
   }
 
@@ -314,233 +623,770 @@ public class SudokuPuzzle {
    * Purpose:
    *      Check if a row is missing a value and only has one cell within
    *      the row that it can go in. (Will fill with value if it finds one)
+   *      Only rows with a change since they were last checked are looked at
    *
    * Input:
    *      None
    *
    * Output:
-   *      None
+   *      @return - The number of cells whose true value was found
+   *                OR -1 if a missing value had no possible cell
    *
    * Assumption:
    *      The row contents have been filled already
    *      As well as possible values
   */
-  public void checkForFillableRows() {
-    // Check each row that is not filled
-    for (int row = 0; row < 9; row++) {
+  public int checkForFillableRows() {
+    int rt = 0;
+
+    // Only the rows which changed since they were last checked
+    int dirty = dirtyRows;
+    dirtyRows = 0;
+
+    while (dirty != 0) {
+      int row = Integer.numberOfTrailingZeros(dirty);
+      dirty &= dirty - 1;
+
       // If the row is filled, continue
-      if (rowContents[row][0] == 9) continue;
+      if (rowContents[row][0] == size) continue;
 
       // Check the row
-      checkFillableRow(row);
+      int found = checkFillableUnit(units[row], rowContents[row]);
+      if (found < 0) return -1;
+      rt += found;
     }
+    return rt;
   }
 
   /**
-   * checkFillableRow()
+   * checkForFillableCols()
    *
    * Purpose:
-   *      Check a given row for missing values with only one possible cell
+   *      Check if a col is missing a value and only has one cell within
+   *      the row that it can go in. (Will fill with value if it finds one)
+   *      Only cols with a change since they were last checked are looked at
    *
    * Input:
-   *      @param row - The index of the row
+   *      None
    *
    * Output:
-   *      None
+   *      @return - The number of cells whose true value was found
+   *                OR -1 if a missing value had no possible cell
    *
    * Assumption:
-   *      The row contents have been filled already
+   *      The col contents have been filled already
    *      As well as possible values
   */
-  private void checkFillableRow(int row) {
-    if (row > 8 || row < 0)
-      throw new IndexOutOfBoundsException();
+  public int checkForFillableCols() {
+    int rt = 0;
 
-    // Loop over values 1-9
-    for (int i = 1; i <= 9; i++) {
-      // If the row already has this value, continue
-      if (rowContents[row][i] != 0) continue;
+    // Only the cols which changed since they were last checked
+    int dirty = dirtyCols;
+    dirtyCols = 0;
 
-      // To keep track of cells where this value could go
-      int possibleCells = 0;
-      int lastPossibleCol = -1;
-
-      // Loops over row's cells
-      for (int col = 0; col < 9; col++) {
-        // If the cell is already filled, continue
-        if(cells[row][col] != 0) continue;
+    while (dirty != 0) {
+      int col = Integer.numberOfTrailingZeros(dirty);
+      dirty &= dirty - 1;
 
-        // If this cell's possible values contains i, add to possible cells
-        // and update the last possibleCol
-        if(possibilities.get(coordinates[row][col]).contains(i)) {
-          possibleCells++;
-          lastPossibleCol = col;
-        }
-      }
+      // If the col is filled, continue
+      if (colContents[col][0] == size) continue;
 
-      // If there is only one possible cell
-      if (possibleCells == 1) {
-        setCellValue(row, lastPossibleCol, i);
-      }
+      // Check the col
+      int found = checkFillableUnit(units[size + col], colContents[col]);
+      if (found < 0) return -1;
+      rt += found;
     }
+    return rt;
   }
 
   /**
-   * checkForFillableCols()
+   * checkForFillableBoxs()
    *
    * Purpose:
-   *      Check if a col is missing a value and only has one cell within
-   *      the row that it can go in. (Will fill with value if it finds one)
+   *      Check if a box is missing a value and only has one cell within
+   *      the box that it can go in. (Will fill with value if it finds one)
+   *      Only boxes with a change since they were last checked are looked at
    *
    * Input:
    *      None
    *
    * Output:
-   *      None
+   *      @return - The number of cells whose true value was found
+   *                OR -1 if a missing value had no possible cell
    *
    * Assumption:
-   *      The col contents have been filled already
+   *      The box contents have been filled already
    *      As well as possible values
   */
-  public void checkForFillableCols() {
-    // Check each row that is not filled
-    for (int col = 0; col < 9; col++) {
-      // If the col is filled, continue
-      if (colContents[col][0] == 9) continue;
+  public int checkForFillableBoxs() {
+    int rt = 0;
+
+    // Only the boxes which changed since they were last checked
+    int dirty = dirtyBoxs;
+    dirtyBoxs = 0;
+
+    while (dirty != 0) {
+      int box = Integer.numberOfTrailingZeros(dirty);
+      dirty &= dirty - 1;
+
+      // If the box is filled, continue
+      if (boxContents[box][0] == size) continue;
 
       // Check the col
-      checkFillableCol(col);
+      int found = checkFillableUnit(units[2 * size + box], boxContents[box]);
+      if (found < 0) return -1;
+      rt += found;
     }
+    return rt;
   }
 
   /**
-   * checkFillableCol()
+   * checkFillableUnit(unitCells, contents)
    *
    * Purpose:
-   *      Check a given col for missing values with only one possible cell
+   *      Check a given row, col or box for missing values with only one
+   *      possible cell
    *
    * Input:
-   *      @param col - The index of the col
+   *      @param unitCells - The unit's cells (see Geometry.units)
+   *      @param contents  - The unit's row, col or box contents
    *
    * Output:
-   *      None
+   *      @return - The number of cells whose true value was found
+   *                OR -1 if a missing value had no possible cell
    *
    * Assumption:
-   *      The col contents have been filled already
+   *      The unit's contents have been filled already
    *      As well as possible values
   */
-  private void checkFillableCol(int col) {
-    if (col > 8 || col < 0)
-      throw new IndexOutOfBoundsException();
+  private int checkFillableUnit(int[] unitCells, int[] contents) {
+    int rt = 0;
 
     // Loop over values 1-9
-    for (int i = 1; i <= 9; i++) {
-      // If the col already has this value, continue
-      if (colContents[col][i] != 0) continue;
+    for (int i = 1; i <= size; i++) {
+      // If the unit already has this value, continue
+      if (contents[i] != 0) continue;
 
       // To keep track of cells where this value could go
+      int bit = CandidateMask.bit(i);
       int possibleCells = 0;
-      int lastPossibleRow = -1;
-
-      // Loops over col's cells
-      for (int row = 0; row < 9; row++) {
-        // If the cell is already filled, continue
-        if(cells[row][col] != 0) continue;
+      int lastPossibleCell = -1;
 
-        // If this cell's possible values contains i, add to possible cells
-        // and update the last possibleCol
-        if(possibilities.get(coordinates[row][col]).contains(i)) {
+      // Loops over the unit's cells, filled cells have no possibilities
+      for (int cell : unitCells) {
+        if ((possibilities[cell] & bit) != 0) {
           possibleCells++;
-          lastPossibleRow = row;
+          lastPossibleCell = cell;
         }
       }
 
-      // If there is only one possible cell
+      // If there is only one possible cell, the value goes there
       if (possibleCells == 1) {
-        setCellValue(lastPossibleRow, col, i);
+        place(lastPossibleCell, i);
+        rt++;
+      }
+      // If there are none, the value can't go anywhere in the unit
+      else if (possibleCells == 0) {
+        return -1;
       }
     }
+    return contradiction ? -1 : rt;
   }
 
   /**
-   * checkForFillableBoxs()
+   * eliminateIntersections()
    *
    * Purpose:
-   *      Check if a box is missing a value and only has one cell within
-   *      the box that it can go in. (Will fill with value if it finds one)
+   *      Uses the overlap of each box with a row or col:
+   *        - If a box's possible cells for a value are all in one row
+   *          (or col), the value must go in that part of the row, so it is
+   *          removed from the rest of the row (pointing pairs and triples)
+   *        - If a row's (or col's) possible cells for a value are all in
+   *          one box, it is removed from the rest of the box
+   *          (box/line reduction)
    *
    * Input:
    *      None
    *
    * Output:
+   *      @return - The number of cells which lost possible values
+   *                OR -1 if a cell was left with no possible values
+  */
+  public int eliminateIntersections() {
+    int rt = 0;
+
+    for (int val = 1; val <= size; val++) {
+      int bit = CandidateMask.bit(val);
+
+      // Pointing: box to row and col
+      for (int box = 0; box < size; box++) {
+        if (boxContents[box][val] != 0) continue;
+
+        // Find the rows and cols of the box the value can go in
+        int rows = 0;
+        int cols = 0;
+        for (int cell : units[2 * size + box]) {
+          if ((possibilities[cell] & bit) != 0) {
+            rows |= 1 << rowOf[cell];
+            cols |= 1 << colOf[cell];
+          }
+        }
+
+        if (CandidateMask.count(rows) == 1) {
+          rt += removeFromLineOutsideBox(units[Integer.numberOfTrailingZeros(rows)], box, bit);
+        }
+        if (CandidateMask.count(cols) == 1) {
+          rt += removeFromLineOutsideBox(units[size + Integer.numberOfTrailingZeros(cols)], box, bit);
+        }
+      }
+
+      // Box/line reduction: row to box
+      for (int row = 0; row < size; row++) {
+        if (rowContents[row][val] != 0) continue;
+
+        int boxes = 0;
+        for (int cell : units[row]) {
+          if ((possibilities[cell] & bit) != 0) boxes |= 1 << boxOf[cell];
+        }
+
+        if (CandidateMask.count(boxes) == 1) {
+          rt += removeFromBoxOutsideLine(Integer.numberOfTrailingZeros(boxes), row, -1, bit);
+        }
+      }
+
+      // Box/line reduction: col to box
+      for (int col = 0; col < size; col++) {
+        if (colContents[col][val] != 0) continue;
+
+        int boxes = 0;
+        for (int cell : units[size + col]) {
+          if ((possibilities[cell] & bit) != 0) boxes |= 1 << boxOf[cell];
+        }
+
+        if (CandidateMask.count(boxes) == 1) {
+          rt += removeFromBoxOutsideLine(Integer.numberOfTrailingZeros(boxes), -1, col, bit);
+        }
+      }
+    }
+
+    return contradiction ? -1 : rt;
+  }
+
+  /**
+   * removeFromBoxOutsideLine(box, keepRow, keepCol, bit)
+   *
+   * Purpose:
+   *      Removes a value from the cells of a box which are not in the
+   *      given row (or col)
+   *
+   * Input:
+   *      @param box     - The index of the box
+   *      @param keepRow - The row to leave alone, or -1
+   *      @param keepCol - The col to leave alone, or -1
+   *      @param bit     - The value's mask bit (see CandidateMask)
+   *
+   * Output:
+   *      @return - The number of cells which lost the value
+  */
+  private int removeFromBoxOutsideLine(int box, int keepRow, int keepCol, int bit) {
+    int rt = 0;
+
+    for (int cell : units[2 * size + box]) {
+      if (rowOf[cell] == keepRow || colOf[cell] == keepCol) continue;
+      if (removePossibility(cell, bit)) rt++;
+    }
+    return rt;
+  }
+
+  /**
+   * removeFromLineOutsideBox(lineCells, box, bit)
+   *
+   * Purpose:
+   *      Removes a value from the cells of a row (or col) which are not in
+   *      the given box
+   *
+   * Input:
+   *      @param lineCells - The row's or col's cells (see Geometry.units)
+   *      @param box       - The index of the box to leave alone
+   *      @param bit       - The value's mask bit (see CandidateMask)
+   *
+   * Output:
+   *      @return - The number of cells which lost the value
+  */
+  private int removeFromLineOutsideBox(int[] lineCells, int box, int bit) {
+    int rt = 0;
+
+    for (int cell : lineCells) {
+      if (boxOf[cell] == box) continue;
+      if (removePossibility(cell, bit)) rt++;
+    }
+    return rt;
+  }
+
+  /**
+   * eliminateNakedSubsets()
+   *
+   * Purpose:
+   *      Looks in every row, col and box for 2, 3 or 4 empty cells whose
+   *      possible values, put together, are only that many values
+   *      (a naked pair, triple or quad). Those values have to go in those
+   *      cells, so they are removed from the other cells of the unit
+   *
+   * Input:
    *      None
    *
-   * Assumption:
-   *      The box contents have been filled already
-   *      As well as possible values
+   * Output:
+   *      @return - The number of cells which lost possible values
+   *                OR -1 if a unit had more cells than values left for them
   */
-  public void checkForFillableBoxs() {
-    // Check each row that is not filled
-    for (int box = 0; box < 9; box++) {
-      // If the box is filled, continue
-      if (boxContents[box][0] == 9) continue;
+  public int eliminateNakedSubsets() {
+    int rt = 0;
 
-      // Check the col
-      checkFillableBox(box);
+    for (int unit = 0; unit < units.length; unit++) {
+      int n = gatherEmptyCells(unit);
+
+      // Keep going in this unit until no more subsets remove anything
+      int subsetSize = 2;
+      while (subsetSize <= 4 && subsetSize < n) {
+        int chosen = findNakedSubset(n, subsetSize, 0, 0, 0, 0);
+        if (chosen < 0) return -1;
+        if (chosen == 0) {
+          subsetSize++;
+          continue;
+        }
+
+        // Remove the subset's values from the unit's other empty cells
+        int vals = 0;
+        for (int i = 0; i < n; i++) {
+          if ((chosen & (1 << i)) != 0) vals |= subsetMasks[i];
+        }
+        for (int i = 0; i < n; i++) {
+          if ((chosen & (1 << i)) != 0) continue;
+
+          int cell = subsetCells[i];
+          if (removePossibility(cell, vals)) rt++;
+        }
+        if (contradiction) return -1;
+
+        n = gatherEmptyCells(unit);
+        subsetSize = 2;
+      }
     }
+    return rt;
   }
 
   /**
-   * checkFillableBox()
+   * findNakedSubset(n, subsetSize, start, depth, chosen, vals)
    *
    * Purpose:
-   *      Check a given box for missing values with only one possible cell
+   *      Picks subsetSize of the gathered cells whose possible values put
+   *      together are subsetSize values, and which share a value with one
+   *      of the other cells (so something can be removed)
    *
    * Input:
-   *      @param box - The index of the box
+   *      @param n          - The number of gathered cells
+   *      @param subsetSize - The number of cells to pick
+   *      @param start      - The first gathered cell which may still be picked
+   *      @param depth      - The number of cells picked so far
+   *      @param chosen     - The cells picked so far, bit i for gathered cell i
+   *      @param vals       - The possible values of the cells picked so far
    *
    * Output:
+   *      @return - The picked cells, bit i for gathered cell i
+   *                OR 0 if there is no such subset
+   *                OR -1 if the picked cells have fewer values than cells
+  */
+  private int findNakedSubset(int n, int subsetSize, int start, int depth, int chosen, int vals) {
+    if (depth == subsetSize) {
+      int count = CandidateMask.count(vals);
+      if (count < subsetSize) return -1;
+
+      // Only worth it if another cell can lose one of the values
+      for (int i = 0; i < n; i++) {
+        if ((chosen & (1 << i)) == 0 && (subsetMasks[i] & vals) != 0) return chosen;
+      }
+      return 0;
+    }
+
+    for (int i = start; i < n; i++) {
+      int together = vals | subsetMasks[i];
+      if (CandidateMask.count(together) > subsetSize) continue;
+
+      int found = findNakedSubset(n, subsetSize, i + 1, depth + 1, chosen | (1 << i), together);
+      if (found != 0) return found;
+    }
+    return 0;
+  }
+
+  /**
+   * eliminateHiddenSubsets()
+   *
+   * Purpose:
+   *      Looks in every row, col and box for 2, 3 or 4 values which can
+   *      only go in that many cells (a hidden pair, triple or quad).
+   *      Those cells have to hold those values, so every other value is
+   *      removed from them
+   *
+   * Input:
    *      None
    *
-   * Assumption:
-   *      The box contents have been filled already
-   *      As well as possible values
+   * Output:
+   *      @return - The number of cells which lost possible values
+   *                OR -1 if a unit had more values than cells left for them
   */
-  private void checkFillableBox(int box) {
-    if (box > 8 || box < 0)
-      throw new IndexOutOfBoundsException();
+  public int eliminateHiddenSubsets() {
+    int rt = 0;
 
-    // Loop over values 1-9
-    for (int i = 1; i <= 9; i++) {
-      // If the box already has this value, continue
-      if (boxContents[box][i] != 0) continue;
+    for (int unit = 0; unit < units.length; unit++) {
+      int n = gatherValuePositions(unit);
 
-      // To keep track of cells where this value could go
-      int possibleCells = 0;
-      int lastPossibleRow = -1;
-      int lastPossibleCol = -1;
-
-      // Loops over box's rows
-      int boxColOffset = (box%3) * 3;
-      int boxRowOffset = (box/3) * 3;
-      for (int row = 0 + boxRowOffset; row < 3 + boxRowOffset; row++) {
-        for (int col = 0 + boxColOffset; col < 3 + boxColOffset; col++) {
-          // If the cell is already filled, continue
-          if(cells[row][col] != 0) continue;
-
-          // If this cell's possible values contains i, add to possible cells
-          // and update the last possibleCol
-          if(possibilities.get(coordinates[row][col]).contains(i)) {
-            possibleCells++;
-            lastPossibleRow = row;
-            lastPossibleCol = col;
+      int subsetSize = 2;
+      while (subsetSize <= 4 && subsetSize < n) {
+        int chosen = findHiddenSubset(subsetSize, 0, 0, 0, 0);
+        if (chosen < 0) return -1;
+        if (chosen == 0) {
+          subsetSize++;
+          continue;
+        }
+
+        // Remove every other value from the cells the subset's values are in
+        int positions = 0;
+        for (int i = 0; i < size; i++) {
+          if ((chosen & (1 << i)) != 0) positions |= subsetMasks[i];
+        }
+        while (positions != 0) {
+          int cell = subsetCells[Integer.numberOfTrailingZeros(positions)];
+          positions &= positions - 1;
+
+          if (removePossibility(cell, allValues & ~chosen)) rt++;
+        }
+        if (contradiction) return -1;
+
+        n = gatherValuePositions(unit);
+        subsetSize = 2;
+      }
+    }
+    return rt;
+  }
+
+  /**
+   * findHiddenSubset(subsetSize, start, depth, chosen, positions)
+   *
+   * Purpose:
+   *      Picks subsetSize values which can only go in subsetSize of the
+   *      unit's cells put together, where one of those cells has another
+   *      possible value (so something can be removed)
+   *
+   * Input:
+   *      @param subsetSize - The number of values to pick
+   *      @param start      - The first value (0-8) which may still be picked
+   *      @param depth      - The number of values picked so far
+   *      @param chosen     - The values picked so far (see CandidateMask)
+   *      @param positions  - The cells the picked values can go in
+   *
+   * Output:
+   *      @return - The picked values (see CandidateMask)
+   *                OR 0 if there is no such subset
+   *                OR -1 if the picked values have fewer cells than values
+  */
+  private int findHiddenSubset(int subsetSize, int start, int depth, int chosen, int positions) {
+    if (depth == subsetSize) {
+      if (CandidateMask.count(positions) < subsetSize) return -1;
+
+      // Only worth it if one of the cells has another possible value
+      while (positions != 0) {
+        int cell = subsetCells[Integer.numberOfTrailingZeros(positions)];
+        positions &= positions - 1;
+
+        if ((possibilities[cell] & ~chosen) != 0) return chosen;
+      }
+      return 0;
+    }
+
+    for (int i = start; i < size; i++) {
+      // Values already in the unit can go nowhere, leave them out
+      if (subsetMasks[i] == 0) continue;
+
+      int together = positions | subsetMasks[i];
+      if (CandidateMask.count(together) > subsetSize) continue;
+
+      int found = findHiddenSubset(subsetSize, i + 1, depth + 1, chosen | (1 << i), together);
+      if (found != 0) return found;
+    }
+    return 0;
+  }
+
+  /**
+   * gatherEmptyCells(unit)
+   *
+   * Purpose:
+   *      Puts a unit's empty cells and their possible values in
+   *      subsetCells and subsetMasks
+   *
+   * Input:
+   *      @param unit - The unit (0-8 rows, 9-17 cols, 18-26 boxes)
+   *
+   * Output:
+   *      @return - The number of empty cells
+  */
+  private int gatherEmptyCells(int unit) {
+    int n = 0;
+    for (int cell : units[unit]) {
+      int vals = possibilities[cell];
+      if (vals == 0) continue;
+
+      subsetCells[n] = cell;
+      subsetMasks[n] = vals;
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * gatherValuePositions(unit)
+   *
+   * Purpose:
+   *      Puts a unit's empty cells in subsetCells, and for each value the
+   *      empty cells it can go in in subsetMasks
+   *
+   * Input:
+   *      @param unit - The unit (0-8 rows, 9-17 cols, 18-26 boxes)
+   *
+   * Output:
+   *      @return - The number of empty cells
+  */
+  private int gatherValuePositions(int unit) {
+    Arrays.fill(subsetMasks, 0);
+
+    int n = 0;
+    for (int cell : units[unit]) {
+      int vals = possibilities[cell];
+      if (vals == 0) continue;
+
+      subsetCells[n] = cell;
+      while (vals != 0) {
+        subsetMasks[Integer.numberOfTrailingZeros(vals)] |= 1 << n;
+        vals &= vals - 1;
+      }
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * eliminateFish()
+   *
+   * Purpose:
+   *      For each value, looks for 2, 3 or 4 rows where the value's possible
+   *      cells are all within that many cols (an X-Wing, Swordfish or
+   *      Jellyfish). The value has to go in those cols within those rows,
+   *      so it is removed from the rest of the cols. The same is done with
+   *      rows and cols swapped
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The number of cells which lost possible values
+   *                OR -1 if some rows had fewer cols left than rows
+  */
+  public int eliminateFish() {
+    int rt = 0;
+
+    buildFishMasks();
+
+    for (int val = 1; val <= size; val++) {
+      int bit = CandidateMask.bit(val);
+
+      for (int byCols = 0; byCols < 2; byCols++) {
+        int[] lines = byCols == 0 ? fishRows[val - 1] : fishCols[val - 1];
+
+        int fishSize = 2;
+        while (fishSize <= 4) {
+          int chosen = findFish(lines, fishSize, 0, 0, 0, 0);
+          if (chosen < 0) return -1;
+          if (chosen == 0) {
+            fishSize++;
+            continue;
+          }
+
+          // The cover lines the value must be in within the chosen lines
+          int cover = 0;
+          for (int i = 0; i < size; i++) {
+            if ((chosen & (1 << i)) != 0) cover |= lines[i];
+          }
+
+          // Remove the value from the cover lines outside the chosen lines
+          for (int i = 0; i < size; i++) {
+            if ((chosen & (1 << i)) != 0 || (lines[i] & cover) == 0) continue;
+
+            int positions = lines[i] & cover;
+            while (positions != 0) {
+              int j = Integer.numberOfTrailingZeros(positions);
+              positions &= positions - 1;
+
+              boolean removed = byCols == 0 ? removePossibility(i * size + j, bit)
+                                            : removePossibility(j * size + i, bit);
+              if (removed) rt++;
+            }
           }
+          if (contradiction) return -1;
+
+          buildFishMasks();
+          fishSize = 2;
         }
       }
-      // If there is only one possible cell
-      if (possibleCells == 1) {
-        setCellValue(lastPossibleRow, lastPossibleCol, i);
+    }
+    return rt;
+  }
+
+  /**
+   * findFish(lines, fishSize, start, depth, chosen, cover)
+   *
+   * Purpose:
+   *      Picks fishSize lines whose possible positions for a value put
+   *      together are only fishSize positions, where one of the other lines
+   *      shares a position (so something can be removed)
+   *
+   * Input:
+   *      @param lines    - For each line, a mask of positions the value can
+   *                        go in (0 if the value is already in the line)
+   *      @param fishSize - The number of lines to pick
+   *      @param start    - The first line which may still be picked
+   *      @param depth    - The number of lines picked so far
+   *      @param chosen   - The lines picked so far, bit i for line i
+   *      @param cover    - The positions of the lines picked so far
+   *
+   * Output:
+   *      @return - The picked lines, bit i for line i
+   *                OR 0 if there is no such fish
+   *                OR -1 if the picked lines have fewer positions than lines
+  */
+  private int findFish(int[] lines, int fishSize, int start, int depth, int chosen, int cover) {
+    if (depth == fishSize) {
+      if (CandidateMask.count(cover) < fishSize) return -1;
+
+      for (int i = 0; i < size; i++) {
+        if ((chosen & (1 << i)) == 0 && (lines[i] & cover) != 0) return chosen;
+      }
+      return 0;
+    }
+
+    for (int i = start; i < size; i++) {
+      if (lines[i] == 0) continue;
+
+      int together = cover | lines[i];
+      if (CandidateMask.count(together) > fishSize) continue;
+
+      int found = findFish(lines, fishSize, i + 1, depth + 1, chosen | (1 << i), together);
+      if (found != 0) return found;
+    }
+    return 0;
+  }
+
+  /**
+   * buildFishMasks()
+   *
+   * Purpose:
+   *      Fills fishRows and fishCols from the cells' possibilities
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      None
+  */
+  private void buildFishMasks() {
+    for (int i = 0; i < size; i++) {
+      Arrays.fill(fishRows[i], 0);
+      Arrays.fill(fishCols[i], 0);
+    }
+
+    for (int cell = 0; cell < cellCount; cell++) {
+      int vals = possibilities[cell];
+      if (vals == 0) continue;
+
+      int row = rowOf[cell];
+      int col = colOf[cell];
+      while (vals != 0) {
+        int i = Integer.numberOfTrailingZeros(vals);
+        vals &= vals - 1;
+
+        fishRows[i][row] |= 1 << col;
+        fishCols[i][col] |= 1 << row;
+      }
+    }
+  }
+
+  /**
+   * copyFrom(other)
+   *
+   * Purpose:
+   *      Makes this puzzle an exact copy of another one, so a guess can be
+   *      tried on the copy without losing the original
+   *
+   * Input:
+   *      @param other - The puzzle to copy, with the same box size
+   *
+   * Output:
+   *      None
+  */
+  public void copyFrom(SudokuPuzzle other) {
+    if (other.boxSize != boxSize)
+      throw new IllegalArgumentException("The puzzles must have the same box size");
+
+    System.arraycopy(other.cells, 0, cells, 0, cellCount);
+    System.arraycopy(other.possibilities, 0, possibilities, 0, cellCount);
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(other.rowContents[i], 0, rowContents[i], 0, size + 1);
+      System.arraycopy(other.colContents[i], 0, colContents[i], 0, size + 1);
+      System.arraycopy(other.boxContents[i], 0, boxContents[i], 0, size + 1);
+    }
+    System.arraycopy(other.rowUsed, 0, rowUsed, 0, size);
+    System.arraycopy(other.colUsed, 0, colUsed, 0, size);
+    System.arraycopy(other.boxUsed, 0, boxUsed, 0, size);
+    System.arraycopy(other.singles, 0, singles, 0, other.numSingles);
+    numSingles = other.numSingles;
+    contradiction = other.contradiction;
+    dirtyRows = other.dirtyRows;
+    dirtyCols = other.dirtyCols;
+    dirtyBoxs = other.dirtyBoxs;
+    filledCells = other.filledCells;
+  }
+
+  /**
+   * findFewestPossibilitiesCell()
+   *
+   * Purpose:
+   *      Finds the empty cell with the fewest possible values, which is
+   *      the best cell to guess in since a guess there is most likely right
+   *
+   * Input:
+   *      None
+   *
+   * Output:
+   *      @return - The cell's index (row * 9 + col)
+   *                OR -1 if there are no empty cells
+   *
+   * Assumption:
+   *      The possible values have been filled already
+  */
+  public int findFewestPossibilitiesCell() {
+    int best = -1;
+    int bestCount = size + 1;
+
+    for (int cell = 0; cell < cellCount; cell++) {
+      if (cells[cell] != 0) continue;
+
+      int count = CandidateMask.count(possibilities[cell]);
+      if (count < bestCount) {
+        best = cell;
+        bestCount = count;
+
+        // Can't do better than two, a single would have been filled
+        if (count <= 2) return best;
       }
     }
+    return best;
   }
 }
@@ -9,22 +9,58 @@
  *  File Created - January 3, 2018
  *  fillCellsArr() added - January 12, 2018
  *  attemptSolve() added - January 12, 2018
+ *  attemptSolve() uses the headless PropagationEngine - October 18, 2026
+ *  --batch command line mode added - October 18, 2026
+ *  --generate command line mode added - October 18, 2026
+ *  attemptSolve() solves on a SolveWorker, off the EDT - October 18, 2026
+ *  --dedup command line mode added - October 18, 2026
+ *  --convert command line mode added - October 18, 2026
  */
 package sudokusolver;
 
+import java.io.IOException;
+import java.util.Arrays;
 import javax.swing.JOptionPane;
 
 public class SudokuSolver {
 
-    // The SudokuPuzzle
-    static SudokuPuzzle puzzle;
     // The frame which contains the sudoku puzzle
     static SudokuSolverWindow frame;
+    // The solve running in the background, or null
+    static SolveWorker worker;
+    // The solve button's text when no solve is running
+    static String solveText;
 
     /**
      * @param args the command line arguments
+     *             With --batch puzzles are solved from a file or stdin
+     *             instead of opening the window (see BatchSolver)
+     *             With --generate new puzzles are written instead
+     *             (see BatchGenerator)
+     *             With --dedup repeats of the same puzzle are dropped
+     *             from a file or stdin (see BatchDeduplicator)
+     *             With --convert puzzle lines are converted to 41 byte
+     *             records or back (see PuzzleConverter)
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        // Run from the command line if asked to
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--generate")) {
+            BatchGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--dedup")) {
+            BatchDeduplicator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--convert")) {
+            PuzzleConverter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
         // Create the frame
         frame = new SudokuSolverWindow();
@@ -35,68 +71,130 @@ public class SudokuSolver {
 
         // Bring up the frame for user
         frame.setVisible(true);
-
-        // Initialize puzzle
-        puzzle = new SudokuPuzzle(frame);
     }
 
     /**
      * attemptSolve()
      *
      * Purpose:
-     *      Attempts to solve the sudoku puzzle that the user inputed
+     *      Starts solving the sudoku puzzle that the user inputed in the
+     *      background, or cancels the solve if one is already running
      *
      * Input:
      *      None
      *
      * Output:
      *      None
+     *
+     * Assumption:
+     *      Called on the EDT
     */
     public static void attemptSolve() {
+        // The button is a cancel button while a solve runs
+        if (worker != null) {
+            worker.cancel(true);
+            return;
+        }
+
         // Get all values from user input on screen
-        //     If it failed (returns false) then return
-        if (!fillPuzzleCells()) return;
+        //     If it failed (returns null) then return
+        int[] grid = fillPuzzleCells();
+        if (grid == null) return;
 
-        do {
-          int currentFilledCells = puzzle.getNumFilledCells();
+        solveText = frame.solveButton.getText();
+        frame.solveButton.setText("Cancel");
 
-          // Fill possible values for all cells
-          puzzle.fillAllCellPossibilities();
+        worker = new SolveWorker(frame, grid);
+        worker.execute();
+    }
 
-          // Try to fill by rows
-          puzzle.checkForFillableRows();
+    /**
+     * solveFinished(finished)
+     *
+     * Purpose:
+     *      Puts the solve button back once a background solve is over
+     *
+     * Input:
+     *      @param finished - The worker which finished
+     *
+     * Output:
+     *      None
+     *
+     * Assumption:
+     *      Called on the EDT
+    */
+    static void solveFinished(SolveWorker finished) {
+        if (worker != finished) return;
 
-          // Try to fill the cols
-          puzzle.checkForFillableCols();
+        worker = null;
+        frame.solveButton.setText(solveText);
+    }
 
-          // Try to fill the boxes
-          puzzle.checkForFillableBoxs();
+    /**
+     * showResult(result)
+     *
+     * Purpose:
+     *      Shows a finished solve in the window
+     *
+     * Input:
+     *      @param result - The result of the solve
+     *
+     * Output:
+     *      None
+     *
+     * Assumption:
+     *      Called on the EDT
+    */
+    static void showResult(SolveResult result) {
+        if (result.getStatus() == SolveResult.Status.INVALID) {
+            JOptionPane.showMessageDialog(frame, "The puzzle has no solution", "Invalid Puzzle", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-          // If we didnt update any cells in a full loop we should exit
-          if (currentFilledCells == puzzle.getNumFilledCells()) break;
-        } while (puzzle.getNumFilledCells() < 81);
+        // Show everything the engine filled in at once
+        displayGrid(result.getGrid());
+    }
 
-        // Now that we are outside the loop we should reset everything
-        puzzle = new SudokuPuzzle(frame);
+    /**
+     * displayGrid(grid)
+     *
+     * Purpose:
+     *      Puts the values of a grid into the text boxes
+     *
+     * Input:
+     *      @param grid - 81 values in row order, 0 for an empty cell
+     *
+     * Output:
+     *      None
+    */
+    private static void displayGrid(int[] grid) {
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int val = grid[row * 9 + col];
+                if (val != 0) frame.textFields[row][col].setText(String.valueOf(val));
+            }
+        }
     }
 
     /**
      * fillPuzzleCells()
      *
      * Purpose:
-     *      Fills the array cells with user inputed values from the text boxes
+     *      Fills a grid with user inputed values from the text boxes
      *
      * Input:
      *      None
      *
      * Output:
-     *      true  - If the array was successfully filled
-     *      false - If the array was not successfully filled
+     *      The grid - If it was successfully filled (81 values in row order)
+     *      null     - If the grid was not successfully filled
      *
      * Effects:
      *      Displays error window if user inputed a value which was not 1-9
     */
-    private static boolean fillPuzzleCells() {
+    private static int[] fillPuzzleCells() {
+
+        int[] grid = new int[81];
 
         // Iterate over all textBoxes
         for (int row = 0; row < 9; row++) {
@@ -107,26 +205,29 @@ public class SudokuSolver {
 
                 // If the cell is empty, just use 0
                 if (frame.textFields[row][col].getText().isEmpty()) {
-                    puzzle.setCellValue(row,col,0);
+                    grid[row * 9 + col] = 0;
                     continue;
                 }
                 try  {
                   // Parse out the integer
                   val = Integer.parseInt(frame.textFields[row][col].getText());
 
+                  if (val > 9 || val < 0)
+                    throw new NumberFormatException();
+
                   // Update the cell's value
-                  puzzle.setCellValue(row,col,val);
+                  grid[row * 9 + col] = val;
 
                 }
                 catch (NumberFormatException e){
 
                     // Display error window for user
                     JOptionPane.showMessageDialog(frame, "Inproper input found at\nRow: "+(row+1)+"\nCol: "+(col+1)+"\nValue: \""+frame.textFields[row][col].getText()+"\"","Invalid Input", JOptionPane.ERROR_MESSAGE);
-                    return false;
+                    return null;
                 }
 
             }
         }
-        return true;
+        return grid;
     }
 }